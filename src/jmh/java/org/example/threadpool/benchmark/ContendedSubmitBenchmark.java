@@ -0,0 +1,30 @@
+package org.example.threadpool.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Много производителей одновременно отправляют задачи в один пул - здесь видна конкуренция за очереди.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@Threads(8)
+public class ContendedSubmitBenchmark {
+    static final int BATCH = 100;
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH)
+    public void contendedExecute(ExecutorState state) throws InterruptedException {
+        CountDownLatch done = new CountDownLatch(BATCH);
+        Runnable task = done::countDown;
+        for (int i = 0; i < BATCH; i++) {
+            state.executor.execute(task);
+        }
+        done.await();
+    }
+}
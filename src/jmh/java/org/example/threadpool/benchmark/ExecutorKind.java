@@ -0,0 +1,70 @@
+package org.example.threadpool.benchmark;
+
+import org.example.threadpool.CustomExecutor;
+import org.example.threadpool.CustomThreadPool;
+import org.example.threadpool.ExecutorServiceAdapter;
+import org.example.threadpool.QueueType;
+import org.example.threadpool.WaitStrategy;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Сравниваемые пулы. Размер очереди берется с запасом, чтобы бенчмарк мерил диспетчеризацию, а не отказы.
+ */
+enum ExecutorKind {
+    CUSTOM {
+        @Override
+        CustomExecutor create(int threads, int queueSize) {
+            return customBuilder(threads, queueSize).build();
+        }
+    },
+    CUSTOM_MPSC {
+        @Override
+        CustomExecutor create(int threads, int queueSize) {
+            return customBuilder(threads, queueSize).queueType(QueueType.MPSC_RING).build();
+        }
+    },
+    CUSTOM_STEALING {
+        @Override
+        CustomExecutor create(int threads, int queueSize) {
+            return customBuilder(threads, queueSize).workStealing(true).build();
+        }
+    },
+    CUSTOM_SPIN_PARK {
+        @Override
+        CustomExecutor create(int threads, int queueSize) {
+            return customBuilder(threads, queueSize).waitStrategy(WaitStrategy.SPIN_PARK).build();
+        }
+    },
+    CUSTOM_BUSY_SPIN {
+        @Override
+        CustomExecutor create(int threads, int queueSize) {
+            return customBuilder(threads, queueSize).waitStrategy(WaitStrategy.BUSY_SPIN).build();
+        }
+    },
+    THREAD_POOL_EXECUTOR {
+        @Override
+        CustomExecutor create(int threads, int queueSize) {
+            return new ExecutorServiceAdapter(new ThreadPoolExecutor(
+                    threads, threads, 60, TimeUnit.SECONDS, new ArrayBlockingQueue<>(queueSize * threads)));
+        }
+    },
+    FORK_JOIN_POOL {
+        @Override
+        CustomExecutor create(int threads, int queueSize) {
+            return new ExecutorServiceAdapter(new ForkJoinPool(threads));
+        }
+    };
+
+    abstract CustomExecutor create(int threads, int queueSize);
+
+    private static CustomThreadPool.Builder customBuilder(int threads, int queueSize) {
+        return CustomThreadPool.builder()
+                .corePoolSize(threads)
+                .maxPoolSize(threads)
+                .queueSize(queueSize);
+    }
+}
@@ -0,0 +1,30 @@
+package org.example.threadpool.benchmark;
+
+import org.example.threadpool.CustomExecutor;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.logging.Logger;
+
+@State(Scope.Benchmark)
+public class ExecutorState {
+    @Param({"CUSTOM", "CUSTOM_MPSC", "CUSTOM_STEALING", "CUSTOM_SPIN_PARK", "CUSTOM_BUSY_SPIN",
+            "THREAD_POOL_EXECUTOR", "FORK_JOIN_POOL"})
+    public String kind;
+
+    @Param({"4"})
+    public int threads;
+
+    CustomExecutor executor;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        // Иначе меряем журнал событий, а не пул
+        Logger.getLogger("org.example.threadpool").setLevel(java.util.logging.Level.OFF);
+        executor = ExecutorKind.valueOf(kind).create(threads, 16_384);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        executor.shutdownNow();
+    }
+}
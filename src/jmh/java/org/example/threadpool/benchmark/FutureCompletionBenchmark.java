@@ -0,0 +1,49 @@
+package org.example.threadpool.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * submit(Callable) пачкой и ожидание всех Future: стоимость обертки и блокирующего get().
+ * submitAsync - то же самое, но с одним ожиданием на всю пачку через allOf.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@State(Scope.Thread)
+public class FutureCompletionBenchmark {
+    static final int BATCH = 100;
+
+    private final Future<?>[] futures = new Future<?>[BATCH];
+    private final CompletableFuture<?>[] asyncFutures = new CompletableFuture<?>[BATCH];
+    private final Callable<Integer> task = () -> 42;
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH)
+    public void submitAndGet(ExecutorState state, Blackhole blackhole) throws ExecutionException, InterruptedException {
+        for (int i = 0; i < BATCH; i++) {
+            futures[i] = state.executor.submit(task);
+        }
+        for (int i = 0; i < BATCH; i++) {
+            blackhole.consume(futures[i].get());
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH)
+    public void submitAsyncAndJoin(ExecutorState state, Blackhole blackhole) {
+        for (int i = 0; i < BATCH; i++) {
+            asyncFutures[i] = state.executor.submitAsync(task);
+        }
+        CompletableFuture.allOf(asyncFutures).join();
+        blackhole.consume(asyncFutures[BATCH - 1].join());
+    }
+}
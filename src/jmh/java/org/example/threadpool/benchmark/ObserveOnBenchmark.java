@@ -0,0 +1,69 @@
+package org.example.threadpool.benchmark;
+
+import org.example.rxjava.core.Observable;
+import org.example.rxjava.core.Observer;
+import org.example.rxjava.scheduler.Scheduler;
+import org.example.rxjava.scheduler.Schedulers;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Стоимость элемента при переносе потока на планировщик через observeOn.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@State(Scope.Benchmark)
+public class ObserveOnBenchmark {
+    static final int ITEMS = 10_000;
+
+    @Param({"COMPUTATION", "IO", "SINGLE", "VIRTUAL"})
+    public String scheduler;
+
+    private Observable<Integer> pipeline;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Scheduler target = switch (scheduler) {
+            case "COMPUTATION" -> Schedulers.COMPUTATION;
+            case "IO" -> Schedulers.IO;
+            case "SINGLE" -> Schedulers.SINGLE;
+            case "VIRTUAL" -> Schedulers.VIRTUAL;
+            default -> throw new IllegalArgumentException(scheduler);
+        };
+        pipeline = Observable.create((Observer<Integer> observer) -> {
+            for (int i = 0; i < ITEMS; i++) {
+                observer.onNext(i);
+            }
+            observer.onComplete();
+        }).observeOn(target);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ITEMS)
+    public void observeOn(Blackhole blackhole) throws InterruptedException {
+        CountDownLatch done = new CountDownLatch(1);
+        pipeline.subscribe(new Observer<>() {
+            @Override
+            public void onNext(Integer item) {
+                blackhole.consume(item);
+            }
+
+            @Override
+            public void onError(Throwable t) {
+                done.countDown();
+            }
+
+            @Override
+            public void onComplete() {
+                done.countDown();
+            }
+        });
+        done.await();
+    }
+}
@@ -0,0 +1,60 @@
+package org.example.threadpool.benchmark;
+
+import org.example.rxjava.core.Observable;
+import org.example.rxjava.core.Observer;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Стоимость элемента в синхронной цепочке map/filter в зависимости от ее длины.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@State(Scope.Benchmark)
+public class OperatorChainBenchmark {
+    static final int ITEMS = 1_000;
+
+    @Param({"1", "4", "16"})
+    public int stages;
+
+    private Observable<Integer> pipeline;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Observable<Integer> chain = Observable.create((Observer<Integer> observer) -> {
+            for (int i = 0; i < ITEMS; i++) {
+                observer.onNext(i);
+            }
+            observer.onComplete();
+        });
+        for (int i = 0; i < stages; i++) {
+            chain = i % 2 == 0 ? chain.map(v -> v + 1) : chain.filter(v -> v >= 0);
+        }
+        pipeline = chain;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ITEMS)
+    public void mapFilterChain(Blackhole blackhole) {
+        pipeline.subscribe(new Observer<>() {
+            @Override
+            public void onNext(Integer item) {
+                blackhole.consume(item);
+            }
+
+            @Override
+            public void onError(Throwable t) {
+                throw new IllegalStateException(t);
+            }
+
+            @Override
+            public void onComplete() {
+            }
+        });
+    }
+}
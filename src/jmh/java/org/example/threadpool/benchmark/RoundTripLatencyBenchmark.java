@@ -0,0 +1,36 @@
+package org.example.threadpool.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Задержка передачи одной пустой задачи воркеру и обратно. Задача переиспользуется,
+ * поэтому в замер попадают только накладные расходы пула.
+ */
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class RoundTripLatencyBenchmark {
+
+    @State(Scope.Thread)
+    public static class Handoff implements Runnable {
+        volatile boolean done;
+
+        @Override
+        public void run() {
+            done = true;
+        }
+    }
+
+    @Benchmark
+    public void emptyTaskRoundTrip(ExecutorState state, Handoff handoff) {
+        handoff.done = false;
+        state.executor.execute(handoff);
+        while (!handoff.done) {
+            Thread.onSpinWait();
+        }
+    }
+}
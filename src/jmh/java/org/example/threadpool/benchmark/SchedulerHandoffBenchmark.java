@@ -0,0 +1,50 @@
+package org.example.threadpool.benchmark;
+
+import org.example.rxjava.scheduler.Scheduler;
+import org.example.rxjava.scheduler.Schedulers;
+import org.example.rxjava.scheduler.Worker;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Пропускная способность Worker.execute у Rx-планировщиков на пустых задачах.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@State(Scope.Benchmark)
+public class SchedulerHandoffBenchmark {
+    static final int BATCH = 1_000;
+
+    @Param({"COMPUTATION", "IO", "SINGLE", "VIRTUAL"})
+    public String scheduler;
+
+    private Worker worker;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Scheduler target = switch (scheduler) {
+            case "COMPUTATION" -> Schedulers.COMPUTATION;
+            case "IO" -> Schedulers.IO;
+            case "SINGLE" -> Schedulers.SINGLE;
+            case "VIRTUAL" -> Schedulers.VIRTUAL;
+            default -> throw new IllegalArgumentException(scheduler);
+        };
+        worker = target.createWorker();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH)
+    public void workerExecute() throws InterruptedException {
+        CountDownLatch done = new CountDownLatch(BATCH);
+        Runnable task = done::countDown;
+        for (int i = 0; i < BATCH; i++) {
+            worker.execute(task);
+        }
+        done.await();
+    }
+}
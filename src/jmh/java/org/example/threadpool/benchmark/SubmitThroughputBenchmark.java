@@ -0,0 +1,29 @@
+package org.example.threadpool.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Пропускная способность на пустых задачах: пачка execute из одного потока и ожидание, пока все выполнятся.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class SubmitThroughputBenchmark {
+    static final int BATCH = 1_000;
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH)
+    public void executeBatch(ExecutorState state) throws InterruptedException {
+        CountDownLatch done = new CountDownLatch(BATCH);
+        Runnable task = done::countDown;
+        for (int i = 0; i < BATCH; i++) {
+            state.executor.execute(task);
+        }
+        done.await();
+    }
+}
@@ -0,0 +1,66 @@
+package org.example.threadpool.benchmark;
+
+import org.example.threadpool.CustomThreadPool;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Logger;
+
+/**
+ * Поставить и отменить таймаут при большом числе уже ожидающих таймеров - типичный сценарий
+ * таймаутов запросов. Колесо таймеров против кучи ScheduledThreadPoolExecutor.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@State(Scope.Benchmark)
+public class TimerScheduleBenchmark {
+    @Param({"TIMER_WHEEL", "SCHEDULED_THREAD_POOL"})
+    public String kind;
+
+    @Param({"100000"})
+    public int pendingTimers;
+
+    private CustomThreadPool pool;
+    private ScheduledExecutorService scheduler;
+    private final Runnable task = () -> {
+    };
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Logger.getLogger("org.example.threadpool").setLevel(java.util.logging.Level.OFF);
+        pool = CustomThreadPool.builder().corePoolSize(4).maxPoolSize(4).build();
+        if (kind.equals("SCHEDULED_THREAD_POOL")) {
+            ScheduledThreadPoolExecutor executor = new ScheduledThreadPoolExecutor(4);
+            executor.setRemoveOnCancelPolicy(true);
+            scheduler = executor;
+        }
+        for (int i = 0; i < pendingTimers; i++) {
+            schedule(1 + i % 3_600, TimeUnit.SECONDS);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        pool.shutdownNow();
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+        }
+    }
+
+    @Benchmark
+    public boolean scheduleAndCancel() {
+        return schedule(30, TimeUnit.SECONDS).cancel(false);
+    }
+
+    private ScheduledFuture<?> schedule(long delay, TimeUnit unit) {
+        return scheduler != null
+                ? scheduler.schedule(task, delay, unit)
+                : pool.schedule(task, delay, unit);
+    }
+}
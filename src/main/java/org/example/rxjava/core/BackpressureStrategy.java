@@ -0,0 +1,22 @@
+package org.example.rxjava.core;
+
+/**
+ * Что Flowable.create делает с элементами, которые источник отправил без спроса.
+ * Ни одна стратегия не копит такие элементы, поэтому память ограничена при любой скорости источника.
+ */
+public enum BackpressureStrategy {
+    /**
+     * Завершить поток ошибкой IllegalStateException.
+     */
+    ERROR,
+
+    /**
+     * Выбросить элемент.
+     */
+    DROP,
+
+    /**
+     * Держать только последний элемент и отдать его, когда придет спрос.
+     */
+    LATEST
+}
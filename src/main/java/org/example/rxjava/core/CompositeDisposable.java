@@ -0,0 +1,68 @@
+package org.example.rxjava.core;
+
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Набор подписок, которые отменяются вместе. Добавленная после dispose подписка отменяется сразу.
+ */
+public class CompositeDisposable implements Disposable {
+    private Set<Disposable> resources = new HashSet<>();
+    private volatile boolean disposed;
+
+    /**
+     * @return false, если набор уже отменен и d тоже отменена
+     */
+    public boolean add(Disposable d) {
+        if (!disposed) {
+            synchronized (this) {
+                if (!disposed) {
+                    resources.add(d);
+                    return true;
+                }
+            }
+        }
+        d.dispose();
+        return false;
+    }
+
+    /**
+     * Убирает подписку без отмены, например когда она завершилась сама.
+     */
+    public void delete(Disposable d) {
+        if (!disposed) {
+            synchronized (this) {
+                if (!disposed) {
+                    resources.remove(d);
+                }
+            }
+        }
+    }
+
+    public int size() {
+        synchronized (this) {
+            return disposed ? 0 : resources.size();
+        }
+    }
+
+    @Override
+    public void dispose() {
+        Set<Disposable> toDispose;
+        synchronized (this) {
+            if (disposed) {
+                return;
+            }
+            disposed = true;
+            toDispose = resources;
+            resources = null;
+        }
+        for (Disposable d : toDispose) {
+            d.dispose();
+        }
+    }
+
+    @Override
+    public boolean isDisposed() {
+        return disposed;
+    }
+}
@@ -0,0 +1,50 @@
+package org.example.rxjava.core;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Арифметика спроса: Long.MAX_VALUE означает "без ограничений" и не уменьшается.
+ */
+final class Demand {
+    private Demand() {
+    }
+
+    /**
+     * @return спрос до добавления
+     */
+    static long add(AtomicLong requested, long n) {
+        while (true) {
+            long current = requested.get();
+            if (current == Long.MAX_VALUE) {
+                return Long.MAX_VALUE;
+            }
+            long next = current + n;
+            if (next < 0) {
+                next = Long.MAX_VALUE;
+            }
+            if (requested.compareAndSet(current, next)) {
+                return current;
+            }
+        }
+    }
+
+    /**
+     * @return оставшийся спрос
+     */
+    static long produced(AtomicLong requested, long n) {
+        while (true) {
+            long current = requested.get();
+            if (current == Long.MAX_VALUE) {
+                return Long.MAX_VALUE;
+            }
+            long next = current - n;
+            if (requested.compareAndSet(current, next)) {
+                return next;
+            }
+        }
+    }
+
+    static IllegalArgumentException invalidRequest(long n) {
+        return new IllegalArgumentException("request(" + n + "): n must be positive");
+    }
+}
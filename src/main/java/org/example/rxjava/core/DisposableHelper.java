@@ -0,0 +1,40 @@
+package org.example.rxjava.core;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Атомарное поле с Disposable, которое после dispose навсегда остается отмененным:
+ * ресурс, пришедший позже отписки, сразу отменяется.
+ */
+final class DisposableHelper {
+    static final Disposable DISPOSED = Disposable.disposed();
+
+    private DisposableHelper() {
+    }
+
+    static boolean set(AtomicReference<Disposable> field, Disposable d) {
+        while (true) {
+            Disposable current = field.get();
+            if (current == DISPOSED) {
+                if (d != null) {
+                    d.dispose();
+                }
+                return false;
+            }
+            if (field.compareAndSet(current, d)) {
+                return true;
+            }
+        }
+    }
+
+    static void dispose(AtomicReference<Disposable> field) {
+        Disposable current = field.getAndSet(DISPOSED);
+        if (current != null && current != DISPOSED) {
+            current.dispose();
+        }
+    }
+
+    static boolean isDisposed(AtomicReference<Disposable> field) {
+        return field.get() == DISPOSED;
+    }
+}
@@ -0,0 +1,676 @@
+package org.example.rxjava.core;
+
+import org.example.rxjava.scheduler.Scheduler;
+import org.example.rxjava.scheduler.Worker;
+
+import java.util.Iterator;
+import java.util.Objects;
+import java.util.concurrent.Flow;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+/**
+ * Поток с обратным давлением: источник отдает не больше элементов, чем подписчик запросил через request(n).
+ * Это {@link Flow.Publisher}, поэтому он работает с любыми подписчиками и источниками java.util.concurrent.Flow.
+ */
+public class Flowable<T> implements Flow.Publisher<T> {
+    static final int DEFAULT_PREFETCH = 128;
+
+    private final Flow.Publisher<T> source;
+
+    private Flowable(Flow.Publisher<T> source) {
+        this.source = source;
+    }
+
+    /**
+     * @param strategy что делать с элементами, которые источник отправил сверх спроса
+     */
+    public static <T> Flowable<T> create(FlowableOnSubscribe<T> source, BackpressureStrategy strategy) {
+        Objects.requireNonNull(strategy);
+        return new Flowable<>(subscriber -> {
+            CreateEmitter<T> emitter = new CreateEmitter<>(subscriber, strategy);
+            subscriber.onSubscribe(emitter);
+            try {
+                source.subscribe(emitter);
+            } catch (Exception e) {
+                emitter.onError(e);
+            }
+        });
+    }
+
+    /**
+     * Элементы берутся из итератора по мере спроса, поэтому источник может быть сколь угодно большим.
+     */
+    public static <T> Flowable<T> fromIterable(Iterable<T> iterable) {
+        return new Flowable<>(subscriber -> {
+            Iterator<T> iterator;
+            try {
+                iterator = iterable.iterator();
+            } catch (Exception e) {
+                subscriber.onSubscribe(new IteratorSubscription<>(subscriber, null));
+                subscriber.onError(e);
+                return;
+            }
+            subscriber.onSubscribe(new IteratorSubscription<>(subscriber, iterator));
+        });
+    }
+
+    public static Flowable<Integer> range(int start, int count) {
+        return fromIterable(() -> new Iterator<>() {
+            private int next = start;
+
+            @Override
+            public boolean hasNext() {
+                return next - start < count;
+            }
+
+            @Override
+            public Integer next() {
+                return next++;
+            }
+        });
+    }
+
+    @SuppressWarnings("unchecked")
+    public static <T> Flowable<T> fromPublisher(Flow.Publisher<? extends T> publisher) {
+        if (publisher instanceof Flowable<?> flowable) {
+            return (Flowable<T>) flowable;
+        }
+        return new Flowable<>((Flow.Publisher<T>) publisher);
+    }
+
+    @Override
+    public void subscribe(Flow.Subscriber<? super T> subscriber) {
+        Objects.requireNonNull(subscriber);
+        try {
+            source.subscribe(subscriber);
+        } catch (Exception e) {
+            subscriber.onError(e);
+        }
+    }
+
+    public Flowable<T> subscribeOn(Scheduler scheduler) {
+        return new Flowable<>(subscriber -> {
+            Worker worker = scheduler.createWorker();
+            worker.execute(() -> subscribe(new SubscribeOnSubscriber<>(subscriber, worker)));
+        });
+    }
+
+    /**
+     * Переносит доставку элементов на scheduler через ограниченную очередь на prefetch элементов:
+     * сверху запрашивается столько, сколько влезет, и дозапрашивается по мере разбора.
+     */
+    public Flowable<T> observeOn(Scheduler scheduler) {
+        return observeOn(scheduler, DEFAULT_PREFETCH);
+    }
+
+    public Flowable<T> observeOn(Scheduler scheduler, int prefetch) {
+        if (prefetch < 1) {
+            throw new IllegalArgumentException("prefetch must be positive");
+        }
+        return new Flowable<>(subscriber ->
+                subscribe(new ObserveOnSubscriber<>(subscriber, scheduler.createWorker(), prefetch)));
+    }
+
+    public <R> Flowable<R> map(Function<T, R> mapper) {
+        return new Flowable<>(subscriber -> subscribe(new MapSubscriber<>(subscriber, mapper)));
+    }
+
+    public Flowable<T> filter(Predicate<T> predicate) {
+        return new Flowable<>(subscriber -> subscribe(new FilterSubscriber<>(subscriber, predicate)));
+    }
+
+    private static final class CreateEmitter<T> implements FlowableEmitter<T>, Subscription {
+        private final Flow.Subscriber<? super T> actual;
+        private final BackpressureStrategy strategy;
+        private final AtomicLong requested = new AtomicLong();
+        private final AtomicReference<T> latest = new AtomicReference<>();
+        private final AtomicInteger wip = new AtomicInteger();
+        private volatile boolean cancelled;
+        private volatile boolean done;
+        private Throwable error;
+
+        CreateEmitter(Flow.Subscriber<? super T> actual, BackpressureStrategy strategy) {
+            this.actual = actual;
+            this.strategy = strategy;
+        }
+
+        @Override
+        public void onNext(T item) {
+            if (done || cancelled) {
+                return;
+            }
+            if (item == null) {
+                onError(new NullPointerException("onNext called with null"));
+                return;
+            }
+
+            switch (strategy) {
+                case LATEST -> {
+                    latest.set(item);
+                    drainLatest();
+                }
+                case DROP -> {
+                    if (requested.get() != 0) {
+                        actual.onNext(item);
+                        Demand.produced(requested, 1);
+                    }
+                }
+                case ERROR -> {
+                    if (requested.get() != 0) {
+                        actual.onNext(item);
+                        Demand.produced(requested, 1);
+                    } else {
+                        onError(new IllegalStateException("Could not emit value due to lack of requests"));
+                    }
+                }
+            }
+        }
+
+        @Override
+        public void onError(Throwable t) {
+            if (done || cancelled) {
+                return;
+            }
+            error = t;
+            done = true;
+            if (strategy == BackpressureStrategy.LATEST) {
+                drainLatest();
+            } else {
+                cancelled = true;
+                actual.onError(t);
+            }
+        }
+
+        @Override
+        public void onComplete() {
+            if (done || cancelled) {
+                return;
+            }
+            done = true;
+            if (strategy == BackpressureStrategy.LATEST) {
+                drainLatest();
+            } else {
+                cancelled = true;
+                actual.onComplete();
+            }
+        }
+
+        @Override
+        public long requested() {
+            return requested.get();
+        }
+
+        @Override
+        public boolean isCancelled() {
+            return cancelled;
+        }
+
+        @Override
+        public void request(long n) {
+            if (n <= 0) {
+                cancel();
+                actual.onError(Demand.invalidRequest(n));
+                return;
+            }
+            Demand.add(requested, n);
+            if (strategy == BackpressureStrategy.LATEST) {
+                drainLatest();
+            }
+        }
+
+        @Override
+        public void cancel() {
+            cancelled = true;
+            latest.lazySet(null);
+        }
+
+        /**
+         * Отдает последний элемент, когда есть спрос. Вызовы из источника и из request сериализуются через wip.
+         */
+        private void drainLatest() {
+            if (wip.getAndIncrement() != 0) {
+                return;
+            }
+            int missed = 1;
+            do {
+                while (!cancelled) {
+                    boolean terminated = done;
+                    if (requested.get() == 0) {
+                        if (terminated && latest.get() == null) {
+                            terminate();
+                        }
+                        break;
+                    }
+                    T item = latest.getAndSet(null);
+                    if (item == null) {
+                        if (terminated) {
+                            terminate();
+                        }
+                        break;
+                    }
+                    actual.onNext(item);
+                    Demand.produced(requested, 1);
+                }
+                missed = wip.addAndGet(-missed);
+            } while (missed != 0);
+        }
+
+        private void terminate() {
+            cancelled = true;
+            if (error != null) {
+                actual.onError(error);
+            } else {
+                actual.onComplete();
+            }
+        }
+    }
+
+    private static final class IteratorSubscription<T> implements Subscription {
+        private final Flow.Subscriber<? super T> actual;
+        private final Iterator<T> iterator;
+        private final AtomicLong requested = new AtomicLong();
+        private volatile boolean cancelled;
+
+        IteratorSubscription(Flow.Subscriber<? super T> actual, Iterator<T> iterator) {
+            this.actual = actual;
+            this.iterator = iterator;
+            this.cancelled = iterator == null;
+        }
+
+        @Override
+        public void request(long n) {
+            if (n <= 0) {
+                if (!cancelled) {
+                    cancelled = true;
+                    actual.onError(Demand.invalidRequest(n));
+                }
+                return;
+            }
+            // Эмитит тот, кто поднял спрос с нуля; остальные только добавляют спрос
+            if (Demand.add(requested, n) == 0) {
+                emit(n);
+            }
+        }
+
+        @Override
+        public void cancel() {
+            cancelled = true;
+        }
+
+        private void emit(long demand) {
+            long emitted = 0;
+            while (true) {
+                while (emitted != demand) {
+                    if (cancelled) {
+                        return;
+                    }
+                    T item;
+                    try {
+                        if (!iterator.hasNext()) {
+                            cancelled = true;
+                            actual.onComplete();
+                            return;
+                        }
+                        item = Objects.requireNonNull(iterator.next(), "Iterator returned null");
+                    } catch (Exception e) {
+                        cancelled = true;
+                        actual.onError(e);
+                        return;
+                    }
+                    actual.onNext(item);
+                    emitted++;
+                }
+
+                demand = requested.get();
+                if (emitted == demand) {
+                    demand = Demand.produced(requested, emitted);
+                    if (demand == 0) {
+                        return;
+                    }
+                    emitted = 0;
+                }
+            }
+        }
+    }
+
+    private static final class MapSubscriber<T, R> implements Subscriber<T>, Subscription {
+        private final Flow.Subscriber<? super R> actual;
+        private final Function<T, R> mapper;
+        private Flow.Subscription upstream;
+        private boolean done;
+
+        MapSubscriber(Flow.Subscriber<? super R> actual, Function<T, R> mapper) {
+            this.actual = actual;
+            this.mapper = mapper;
+        }
+
+        @Override
+        public void onSubscribe(Flow.Subscription subscription) {
+            upstream = subscription;
+            actual.onSubscribe(this);
+        }
+
+        @Override
+        public void onNext(T item) {
+            if (done) {
+                return;
+            }
+            R result;
+            try {
+                result = mapper.apply(item);
+            } catch (Exception e) {
+                upstream.cancel();
+                onError(e);
+                return;
+            }
+            actual.onNext(result);
+        }
+
+        @Override
+        public void onError(Throwable t) {
+            if (!done) {
+                done = true;
+                actual.onError(t);
+            }
+        }
+
+        @Override
+        public void onComplete() {
+            if (!done) {
+                done = true;
+                actual.onComplete();
+            }
+        }
+
+        @Override
+        public void request(long n) {
+            upstream.request(n);
+        }
+
+        @Override
+        public void cancel() {
+            upstream.cancel();
+        }
+    }
+
+    private static final class FilterSubscriber<T> implements Subscriber<T>, Subscription {
+        private final Flow.Subscriber<? super T> actual;
+        private final Predicate<T> predicate;
+        private Flow.Subscription upstream;
+        private boolean done;
+
+        FilterSubscriber(Flow.Subscriber<? super T> actual, Predicate<T> predicate) {
+            this.actual = actual;
+            this.predicate = predicate;
+        }
+
+        @Override
+        public void onSubscribe(Flow.Subscription subscription) {
+            upstream = subscription;
+            actual.onSubscribe(this);
+        }
+
+        @Override
+        public void onNext(T item) {
+            if (done) {
+                return;
+            }
+            boolean passed;
+            try {
+                passed = predicate.test(item);
+            } catch (Exception e) {
+                upstream.cancel();
+                onError(e);
+                return;
+            }
+            if (passed) {
+                actual.onNext(item);
+            } else {
+                // Отфильтрованный элемент съел единицу спроса - возвращаем ее
+                upstream.request(1);
+            }
+        }
+
+        @Override
+        public void onError(Throwable t) {
+            if (!done) {
+                done = true;
+                actual.onError(t);
+            }
+        }
+
+        @Override
+        public void onComplete() {
+            if (!done) {
+                done = true;
+                actual.onComplete();
+            }
+        }
+
+        @Override
+        public void request(long n) {
+            upstream.request(n);
+        }
+
+        @Override
+        public void cancel() {
+            upstream.cancel();
+        }
+    }
+
+    /**
+     * Пропускает сигналы как есть и отдает worker, как только поток закончился или его отменили.
+     */
+    private static final class SubscribeOnSubscriber<T> implements Subscriber<T>, Subscription {
+        private final Flow.Subscriber<? super T> actual;
+        private final Worker worker;
+        private Flow.Subscription upstream;
+
+        SubscribeOnSubscriber(Flow.Subscriber<? super T> actual, Worker worker) {
+            this.actual = actual;
+            this.worker = worker;
+        }
+
+        @Override
+        public void onSubscribe(Flow.Subscription subscription) {
+            upstream = subscription;
+            actual.onSubscribe(this);
+        }
+
+        @Override
+        public void onNext(T item) {
+            actual.onNext(item);
+        }
+
+        @Override
+        public void onError(Throwable t) {
+            actual.onError(t);
+            worker.dispose();
+        }
+
+        @Override
+        public void onComplete() {
+            actual.onComplete();
+            worker.dispose();
+        }
+
+        @Override
+        public void request(long n) {
+            upstream.request(n);
+        }
+
+        @Override
+        public void cancel() {
+            upstream.cancel();
+            worker.dispose();
+        }
+    }
+
+    /**
+     * Очередь-разборщик: onNext кладет в SPSC-очередь, а один проход drain на worker
+     * отдает элементы по спросу снизу и дозапрашивает сверху порциями по 3/4 prefetch.
+     */
+    private static final class ObserveOnSubscriber<T> implements Subscriber<T>, Subscription, Runnable {
+        private final Flow.Subscriber<? super T> actual;
+        private final Worker worker;
+        private final int prefetch;
+        private final int limit;
+        private final SpscArrayQueue<T> queue;
+        private final AtomicLong requested = new AtomicLong();
+        private final AtomicInteger wip = new AtomicInteger();
+        private Flow.Subscription upstream;
+        private volatile boolean done;
+        private volatile boolean cancelled;
+        private Throwable error;
+
+        // Поля ниже трогает только drain
+        private long emitted;
+        private int consumed;
+
+        ObserveOnSubscriber(Flow.Subscriber<? super T> actual, Worker worker, int prefetch) {
+            this.actual = actual;
+            this.worker = worker;
+            this.prefetch = prefetch;
+            this.limit = prefetch - (prefetch >> 2);
+            this.queue = new SpscArrayQueue<>(prefetch);
+        }
+
+        @Override
+        public void onSubscribe(Flow.Subscription subscription) {
+            upstream = subscription;
+            actual.onSubscribe(this);
+            subscription.request(prefetch);
+        }
+
+        @Override
+        public void onNext(T item) {
+            if (done) {
+                return;
+            }
+            if (!queue.offer(item)) {
+                // Источник прислал больше, чем у него просили
+                upstream.cancel();
+                error = new IllegalStateException("Queue is full, upstream ignored request(n)");
+                done = true;
+            }
+            schedule();
+        }
+
+        @Override
+        public void onError(Throwable t) {
+            if (done) {
+                return;
+            }
+            error = t;
+            done = true;
+            schedule();
+        }
+
+        @Override
+        public void onComplete() {
+            if (done) {
+                return;
+            }
+            done = true;
+            schedule();
+        }
+
+        @Override
+        public void request(long n) {
+            if (n <= 0) {
+                cancel();
+                actual.onError(Demand.invalidRequest(n));
+                return;
+            }
+            Demand.add(requested, n);
+            schedule();
+        }
+
+        /**
+         * Отменяет источник и worker; еще не доставленные элементы выбрасывает слив, если он еще идет,
+         * а иначе - сама отмена.
+         */
+        @Override
+        public void cancel() {
+            if (!cancelled) {
+                cancelled = true;
+                upstream.cancel();
+                worker.dispose();
+                if (wip.getAndIncrement() == 0) {
+                    queue.clear();
+                }
+            }
+        }
+
+        private void schedule() {
+            if (wip.getAndIncrement() == 0) {
+                worker.execute(this);
+            }
+        }
+
+        @Override
+        public void run() {
+            int missed = 1;
+            long emitted = this.emitted;
+            int consumed = this.consumed;
+
+            while (true) {
+                long demand = requested.get();
+                while (emitted != demand) {
+                    boolean terminated = done;
+                    T item = queue.poll();
+                    boolean empty = item == null;
+                    if (checkTerminated(terminated, empty)) {
+                        return;
+                    }
+                    if (empty) {
+                        break;
+                    }
+                    actual.onNext(item);
+                    emitted++;
+                    if (++consumed == limit) {
+                        consumed = 0;
+                        upstream.request(limit);
+                    }
+                }
+                if (emitted == demand && checkTerminated(done, queue.isEmpty())) {
+                    return;
+                }
+
+                this.emitted = emitted;
+                this.consumed = consumed;
+                missed = wip.addAndGet(-missed);
+                if (missed == 0) {
+                    return;
+                }
+            }
+        }
+
+        private boolean checkTerminated(boolean terminated, boolean empty) {
+            if (cancelled) {
+                queue.clear();
+                return true;
+            }
+            if (terminated) {
+                if (error != null) {
+                    cancelled = true;
+                    queue.clear();
+                    actual.onError(error);
+                    worker.dispose();
+                    return true;
+                }
+                if (empty) {
+                    cancelled = true;
+                    actual.onComplete();
+                    worker.dispose();
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+}
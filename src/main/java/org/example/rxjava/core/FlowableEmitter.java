@@ -0,0 +1,20 @@
+package org.example.rxjava.core;
+
+/**
+ * Источник Flowable.create. Источник, который может подождать, смотрит на {@link #requested()};
+ * все, что он отправит сверх спроса, обрабатывается по {@link BackpressureStrategy}.
+ */
+public interface FlowableEmitter<T> {
+    void onNext(T item);
+
+    void onError(Throwable t);
+
+    void onComplete();
+
+    /**
+     * Сколько элементов подписчик еще готов принять.
+     */
+    long requested();
+
+    boolean isCancelled();
+}
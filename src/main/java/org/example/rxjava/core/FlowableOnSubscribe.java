@@ -0,0 +1,6 @@
+package org.example.rxjava.core;
+
+@FunctionalInterface
+public interface FlowableOnSubscribe<T> {
+    void subscribe(FlowableEmitter<T> emitter) throws Exception;
+}
@@ -1,166 +1,1570 @@
 package org.example.rxjava.core;
 
 import org.example.rxjava.scheduler.Scheduler;
+import org.example.rxjava.scheduler.Schedulers;
 import org.example.rxjava.scheduler.Worker;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.function.Function;
 import java.util.function.Predicate;
 
 public class Observable<T> {
+    private static final int DEFAULT_BUFFER_SIZE = 128;
+
     private final Subscriptable<T> source;
+    // Для склеенных map/filter: источник до первой стадии и сами стадии, иначе null
+    private final Observable<?> fusionSource;
+    private final Stage[] stages;
 
     private Observable(Subscriptable<T> source) {
+        this(source, null, null);
+    }
+
+    private Observable(Subscriptable<T> source, Observable<?> fusionSource, Stage[] stages) {
         this.source = source;
+        this.fusionSource = fusionSource;
+        this.stages = stages;
     }
 
+    /**
+     * Источник, которому хватает Observer. Под капотом он все равно получает {@link ObservableEmitter},
+     * так что после отписки его сигналы никуда не уходят.
+     */
     public static <T> Observable<T> create(Subscriptable<T> source) {
-        return new Observable<>(source);
+        return createEmitter(source::subscribe);
+    }
+
+    /**
+     * Источник получает {@link ObservableEmitter}: после отписки его сигналы никуда не уходят,
+     * а сам источник может проверить isDisposed и остановиться.
+     */
+    public static <T> Observable<T> createEmitter(ObservableOnSubscribe<T> source) {
+        return new Observable<>(observer -> {
+            CreateEmitter<T> emitter = new CreateEmitter<>(observer);
+            observer.onSubscribe(emitter);
+            try {
+                source.subscribe(emitter);
+            } catch (Exception e) {
+                emitter.onError(e);
+            }
+        });
     }
 
+    /**
+     * @return подписка; dispose останавливает всю цепочку операторов вплоть до источника
+     */
     public Disposable subscribe(Observer<T> observer) {
+        SubscriberObserver<T> subscriber = new SubscriberObserver<>(observer);
+        subscribeActual(subscriber);
+        return subscriber;
+    }
+
+    private void subscribeActual(Observer<T> observer) {
         try {
             source.subscribe(observer);
-            return new Disposable() {
-                private boolean disposed = false;
-
-                @Override
-                public void dispose() {
-                    disposed = true;
-                }
-
-                @Override
-                public boolean isDisposed() {
-                    return disposed;
-                }
-            };
         } catch (Exception e) {
             observer.onError(e);
-            return Disposable.disposed();
         }
     }
 
     public Observable<T> subscribeOn(Scheduler scheduler) {
         return new Observable<>(observer -> {
             Worker worker = scheduler.createWorker();
-            worker.execute(() -> {
-                try {
-                    source.subscribe(observer);
-                } catch (Exception e) {
-                    observer.onError(e);
-                }
-            });
+            SubscribeOnObserver<T> parent = new SubscribeOnObserver<>(observer, worker);
+            observer.onSubscribe(parent);
+            worker.execute(() -> subscribeActual(parent));
         });
     }
 
     public Observable<T> observeOn(Scheduler scheduler) {
+        return observeOn(scheduler, DEFAULT_BUFFER_SIZE);
+    }
+
+    /**
+     * @param bufferSize размер звена очереди между источником и планировщиком
+     */
+    public Observable<T> observeOn(Scheduler scheduler, int bufferSize) {
+        if (bufferSize < 1) {
+            throw new IllegalArgumentException("bufferSize must be positive");
+        }
+        return new Observable<>(observer ->
+                subscribeActual(new ObserveOnObserver<>(observer, scheduler.createWorker(), bufferSize)));
+    }
+
+    public <R> Observable<R> map(Function<T, R> mapper) {
+        return fuse(new Stage(mapper, null));
+    }
+
+    public <R> Observable<R> flatMap(Function<T, Observable<R>> mapper) {
+        return flatMap(mapper, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Завершается, только когда завершились и источник, и все внутренние Observable.
+     * Элементы внутренних источников из разных потоков доставляются вниз по одному.
+     *
+     * @param maxConcurrency сколько внутренних источников подписано одновременно, остальные ждут очереди
+     */
+    public <R> Observable<R> flatMap(Function<T, Observable<R>> mapper, int maxConcurrency) {
+        if (maxConcurrency < 1) {
+            throw new IllegalArgumentException("maxConcurrency must be positive");
+        }
+        return new Observable<>(observer ->
+                subscribeActual(new FlatMapObserver<>(observer, mapper, maxConcurrency)));
+    }
+
+    public Observable<T> filter(Predicate<T> predicate) {
+        return fuse(new Stage(null, predicate));
+    }
+
+    /**
+     * Пачки по count элементов, последняя может быть короче.
+     */
+    public Observable<List<T>> buffer(int count) {
+        if (count < 1) {
+            throw new IllegalArgumentException("count must be positive");
+        }
+        return new Observable<>(observer -> subscribeActual(new BufferCountObserver<>(observer, count)));
+    }
+
+    /**
+     * Пачки из всего, что пришло за очередной отрезок timespan. Пустые пачки не отправляются.
+     */
+    public Observable<List<T>> buffer(long timespan, TimeUnit unit, Scheduler scheduler) {
+        return bufferTimeout(Integer.MAX_VALUE, timespan, unit, scheduler);
+    }
+
+    public Observable<List<T>> bufferTimeout(int count, long timespan, TimeUnit unit) {
+        return bufferTimeout(count, timespan, unit, Schedulers.COMPUTATION);
+    }
+
+    /**
+     * Пачка уходит, как только набралось count элементов или истек отрезок timespan:
+     * элемент ждет в буфере не дольше timespan.
+     */
+    public Observable<List<T>> bufferTimeout(int count, long timespan, TimeUnit unit, Scheduler scheduler) {
+        if (count < 1 || timespan <= 0) {
+            throw new IllegalArgumentException("count and timespan must be positive");
+        }
+        return new Observable<>(observer -> subscribeActual(
+                new BufferTimedObserver<>(observer, count, timespan, unit, scheduler.createWorker())));
+    }
+
+    /**
+     * Как {@link #buffer(int)}, но каждая пачка - Observable, который получает элементы сразу,
+     * не дожидаясь, пока пачка наберется. На окно можно подписаться один раз.
+     * Пока на окно не подписались, оно копит свои элементы (не больше count). Окно, на которое
+     * не подпишутся никогда, нужно просто отпустить: все, кто держит ссылки на такие окна, держат и их элементы.
+     */
+    public Observable<Observable<T>> window(int count) {
+        if (count < 1) {
+            throw new IllegalArgumentException("count must be positive");
+        }
+        return new Observable<>(observer -> subscribeActual(new WindowCountObserver<>(observer, count)));
+    }
+
+    /**
+     * Окна по времени. Окно открывается с первым элементом отрезка, поэтому пустых окон нет.
+     * Пока на окно не подписались, оно копит все элементы своего отрезка без ограничения.
+     */
+    public Observable<Observable<T>> window(long timespan, TimeUnit unit, Scheduler scheduler) {
+        if (timespan <= 0) {
+            throw new IllegalArgumentException("timespan must be positive");
+        }
+        return new Observable<>(observer -> subscribeActual(
+                new WindowTimedObserver<>(observer, timespan, unit, scheduler.createWorker())));
+    }
+
+    /**
+     * Счетчик 0, 1, 2... каждые period. Отписка останавливает таймер.
+     */
+    public static Observable<Long> interval(long period, TimeUnit unit) {
+        return interval(period, unit, Schedulers.COMPUTATION);
+    }
+
+    public static Observable<Long> interval(long period, TimeUnit unit, Scheduler scheduler) {
+        if (period <= 0) {
+            throw new IllegalArgumentException("period must be positive");
+        }
         return new Observable<>(observer -> {
             Worker worker = scheduler.createWorker();
-            subscribe(new Observer<T>() {
-                @Override
-                public void onNext(T item) {
-                    worker.execute(() -> observer.onNext(item));
-                }
+            observer.onSubscribe(worker);
+            worker.schedulePeriodically(new IntervalTask(observer), period, period, unit);
+        });
+    }
 
-                @Override
-                public void onError(Throwable t) {
-                    worker.execute(() -> observer.onError(t));
-                }
+    public Observable<T> debounce(long timeout, TimeUnit unit) {
+        return debounce(timeout, unit, Schedulers.COMPUTATION);
+    }
 
-                @Override
-                public void onComplete() {
-                    worker.execute(observer::onComplete);
-                }
-            });
-        });
+    /**
+     * Пропускает элемент, только если после него timeout не было следующего.
+     * При завершении источника последний ожидающий элемент отправляется сразу.
+     */
+    public Observable<T> debounce(long timeout, TimeUnit unit, Scheduler scheduler) {
+        if (timeout <= 0) {
+            throw new IllegalArgumentException("timeout must be positive");
+        }
+        return new Observable<>(observer -> subscribeActual(
+                new DebounceObserver<>(observer, timeout, unit, scheduler.createWorker())));
     }
 
-    public <R> Observable<R> map(Function<T, R> mapper) {
+    /**
+     * Пропускает первый элемент и отбрасывает остальные, пока не пройдет windowDuration.
+     * Время берется из System.nanoTime в потоке источника, таймер для этого не нужен.
+     */
+    public Observable<T> throttleFirst(long windowDuration, TimeUnit unit) {
+        if (windowDuration <= 0) {
+            throw new IllegalArgumentException("windowDuration must be positive");
+        }
+        long windowNanos = unit.toNanos(windowDuration);
         return new Observable<>(observer ->
-                subscribe(new Observer<>() {
+                subscribeActual(new OperatorObserver<T, T>(observer) {
+                    private long windowEnd;
+                    private boolean started;
+
                     @Override
                     public void onNext(T item) {
-                        try {
-                            observer.onNext(mapper.apply(item));
-                        } catch (Exception e) {
-                            observer.onError(e);
+                        if (done) {
+                            return;
+                        }
+                        long now = System.nanoTime();
+                        if (!started || now - windowEnd >= 0) {
+                            started = true;
+                            windowEnd = now + windowNanos;
+                            downstream.onNext(item);
                         }
-                    }
-
-                    @Override
-                    public void onError(Throwable t) {
-                        observer.onError(t);
-                    }
-
-                    @Override
-                    public void onComplete() {
-                        observer.onComplete();
                     }
                 })
         );
     }
 
-    public <R> Observable<R> flatMap(Function<T, Observable<R>> mapper) {
-        return new Observable<>(observer ->
-                subscribe(new Observer<>() {
-                    @Override
-                    public void onNext(T item) {
-                        try {
-                            Observable<R> observable = mapper.apply(item);
-                            observable.subscribe(new Observer<>() {
-                                @Override
-                                public void onNext(R value) {
-                                    observer.onNext(value);
-                                }
+    public Observable<T> sample(long period, TimeUnit unit) {
+        return sample(period, unit, Schedulers.COMPUTATION);
+    }
 
-                                @Override
-                                public void onError(Throwable t) {
-                                    observer.onError(t);
-                                }
+    /**
+     * Раз в period отдает последний пришедший элемент, если с прошлого раза был новый.
+     */
+    public Observable<T> sample(long period, TimeUnit unit, Scheduler scheduler) {
+        if (period <= 0) {
+            throw new IllegalArgumentException("period must be positive");
+        }
+        return new Observable<>(observer -> subscribeActual(
+                new SampleObserver<>(observer, period, unit, scheduler.createWorker())));
+    }
+
+    public Observable<T> timeout(long timeout, TimeUnit unit) {
+        return timeout(timeout, unit, Schedulers.COMPUTATION);
+    }
+
+    /**
+     * Ошибка {@link TimeoutException} и отписка от источника, если очередной элемент
+     * (или завершение) не пришел за timeout после подписки или предыдущего элемента.
+     */
+    public Observable<T> timeout(long timeout, TimeUnit unit, Scheduler scheduler) {
+        if (timeout <= 0) {
+            throw new IllegalArgumentException("timeout must be positive");
+        }
+        return new Observable<>(observer -> subscribeActual(
+                new TimeoutObserver<>(observer, timeout, unit, scheduler.createWorker())));
+    }
+
+    /**
+     * Подряд идущие map/filter склеиваются при сборке цепочки в одну стадию: на элемент приходится
+     * один вызов onNext и один наблюдатель, сколько бы операторов ни было в цепочке.
+     */
+    @SuppressWarnings("unchecked")
+    private <R> Observable<R> fuse(Stage stage) {
+        Observable<Object> upstream;
+        Stage[] fused;
+        if (stages != null) {
+            upstream = (Observable<Object>) fusionSource;
+            fused = Arrays.copyOf(stages, stages.length + 1);
+        } else {
+            upstream = (Observable<Object>) this;
+            fused = new Stage[1];
+        }
+        fused[fused.length - 1] = stage;
+        return new Observable<>(observer -> upstream.subscribeActual(new FusedObserver<>(observer, fused)),
+                upstream, fused);
+    }
+
+    /**
+     * Основа промежуточного оператора: передает вниз себя как Disposable, а отписку - вверх.
+     */
+    private abstract static class OperatorObserver<T, R> implements Observer<T>, Disposable {
+        final Observer<R> downstream;
+        private final AtomicReference<Disposable> upstream = new AtomicReference<>();
+        boolean done;
+
+        OperatorObserver(Observer<R> downstream) {
+            this.downstream = downstream;
+        }
+
+        @Override
+        public void onSubscribe(Disposable d) {
+            if (DisposableHelper.set(upstream, d)) {
+                downstream.onSubscribe(this);
+            }
+        }
+
+        @Override
+        public void onError(Throwable t) {
+            if (!done) {
+                done = true;
+                downstream.onError(t);
+            }
+        }
+
+        @Override
+        public void onComplete() {
+            if (!done) {
+                done = true;
+                downstream.onComplete();
+            }
+        }
+
+        /**
+         * Ошибка внутри оператора: источник больше не нужен.
+         */
+        void fail(Throwable t) {
+            dispose();
+            onError(t);
+        }
+
+        @Override
+        public void dispose() {
+            DisposableHelper.dispose(upstream);
+        }
+
+        @Override
+        public boolean isDisposed() {
+            return DisposableHelper.isDisposed(upstream);
+        }
+    }
+
+    /**
+     * Одна стадия склеенной цепочки: либо преобразование, либо условие.
+     */
+    private static final class Stage {
+        final Function<Object, Object> mapper;
+        final Predicate<Object> predicate;
 
-                                @Override
-                                public void onComplete() {}
-                            });
-                        } catch (Exception e) {
-                            observer.onError(e);
+        @SuppressWarnings("unchecked")
+        Stage(Function<?, ?> mapper, Predicate<?> predicate) {
+            this.mapper = (Function<Object, Object>) mapper;
+            this.predicate = (Predicate<Object>) predicate;
+        }
+    }
+
+    private static final class FusedObserver<R> extends OperatorObserver<Object, R> {
+        private final Stage[] stages;
+
+        FusedObserver(Observer<R> downstream, Stage[] stages) {
+            super(downstream);
+            this.stages = stages;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public void onNext(Object item) {
+            if (done) {
+                return;
+            }
+            Object value = item;
+            try {
+                for (Stage stage : stages) {
+                    if (stage.predicate != null) {
+                        if (!stage.predicate.test(value)) {
+                            return;
                         }
+                    } else {
+                        value = stage.mapper.apply(value);
                     }
+                }
+            } catch (Exception e) {
+                fail(e);
+                return;
+            }
+            downstream.onNext((R) value);
+        }
+    }
 
-                    @Override
-                    public void onError(Throwable t) {
-                        observer.onError(t);
-                    }
+    /**
+     * Слияние через очередь и слив: внутренние источники и outer-поток только кладут сигналы
+     * в неблокирующие очереди, а доставляет их вниз тот, кто первым поднял счетчик wip.
+     * Поле active и подписку на ожидающие источники трогает только слив.
+     */
+    private static final class FlatMapObserver<T, R> implements Observer<T>, Disposable {
+        private final Observer<R> downstream;
+        private final Function<T, Observable<R>> mapper;
+        private final int maxConcurrency;
+        private final AtomicReference<Disposable> upstream = new AtomicReference<>();
+        private final CompositeDisposable inners = new CompositeDisposable();
+        private final Queue<Observable<R>> sources = new ConcurrentLinkedQueue<>();
+        private final Queue<R> values = new ConcurrentLinkedQueue<>();
+        private final AtomicInteger completedInners = new AtomicInteger();
+        private final AtomicReference<Throwable> error = new AtomicReference<>();
+        private final AtomicInteger wip = new AtomicInteger();
+        private volatile boolean done;
+        private volatile boolean disposed;
+        private int active;
 
-                    @Override
-                    public void onComplete() {
-                        observer.onComplete();
+        FlatMapObserver(Observer<R> downstream, Function<T, Observable<R>> mapper, int maxConcurrency) {
+            this.downstream = downstream;
+            this.mapper = mapper;
+            this.maxConcurrency = maxConcurrency;
+        }
+
+        @Override
+        public void onSubscribe(Disposable d) {
+            if (DisposableHelper.set(upstream, d)) {
+                downstream.onSubscribe(this);
+            }
+        }
+
+        @Override
+        public void onNext(T item) {
+            if (done) {
+                return;
+            }
+            Observable<R> source;
+            try {
+                source = mapper.apply(item);
+            } catch (Exception e) {
+                onError(e);
+                return;
+            }
+            sources.offer(source);
+            drain();
+        }
+
+        @Override
+        public void onError(Throwable t) {
+            if (done) {
+                return;
+            }
+            done = true;
+            innerError(t);
+        }
+
+        @Override
+        public void onComplete() {
+            if (done) {
+                return;
+            }
+            done = true;
+            drain();
+        }
+
+        void innerNext(R value) {
+            values.offer(value);
+            drain();
+        }
+
+        /**
+         * Первая ошибка останавливает и источник, и все внутренние подписки.
+         */
+        void innerError(Throwable t) {
+            if (error.compareAndSet(null, t)) {
+                DisposableHelper.dispose(upstream);
+                inners.dispose();
+                drain();
+            }
+        }
+
+        void innerComplete(Disposable inner) {
+            if (inner != null) {
+                inners.delete(inner);
+            }
+            completedInners.incrementAndGet();
+            drain();
+        }
+
+        private void drain() {
+            if (wip.getAndIncrement() != 0) {
+                return;
+            }
+            int missed = 1;
+            while (true) {
+                if (checkTerminated()) {
+                    return;
+                }
+                R value;
+                while ((value = values.poll()) != null) {
+                    downstream.onNext(value);
+                    if (checkTerminated()) {
+                        return;
                     }
-                })
-        );
+                }
+
+                boolean terminated = done;
+                active -= completedInners.getAndSet(0);
+                Observable<R> next;
+                while (active < maxConcurrency && (next = sources.poll()) != null) {
+                    active++;
+                    next.subscribeActual(new InnerObserver<>(this));
+                }
+                if (terminated && active == 0 && sources.isEmpty() && values.isEmpty()
+                        && completedInners.get() == 0) {
+                    disposed = true;
+                    downstream.onComplete();
+                    return;
+                }
+
+                missed = wip.addAndGet(-missed);
+                if (missed == 0) {
+                    return;
+                }
+            }
+        }
+
+        private boolean checkTerminated() {
+            if (disposed) {
+                clear();
+                return true;
+            }
+            Throwable t = error.get();
+            if (t != null) {
+                disposed = true;
+                clear();
+                downstream.onError(t);
+                return true;
+            }
+            return false;
+        }
+
+        private void clear() {
+            values.clear();
+            sources.clear();
+        }
+
+        @Override
+        public void dispose() {
+            if (!disposed) {
+                disposed = true;
+                DisposableHelper.dispose(upstream);
+                inners.dispose();
+                drain();
+            }
+        }
+
+        @Override
+        public boolean isDisposed() {
+            return disposed;
+        }
     }
 
-    public Observable<T> filter(Predicate<T> predicate) {
-        return new Observable<>(observer ->
-                subscribe(new Observer<T>() {
-                    @Override
-                    public void onNext(T item) {
-                        try {
-                            if (predicate.test(item)) {
-                                observer.onNext(item);
+    private static final class InnerObserver<R> implements Observer<R> {
+        private final FlatMapObserver<?, R> parent;
+        private Disposable inner;
+
+        InnerObserver(FlatMapObserver<?, R> parent) {
+            this.parent = parent;
+        }
+
+        @Override
+        public void onSubscribe(Disposable d) {
+            inner = d;
+            parent.inners.add(d);
+        }
+
+        @Override
+        public void onNext(R value) {
+            parent.innerNext(value);
+        }
+
+        @Override
+        public void onError(Throwable t) {
+            parent.innerError(t);
+        }
+
+        @Override
+        public void onComplete() {
+            parent.innerComplete(inner);
+        }
+    }
+
+    private static final class BufferCountObserver<T> extends OperatorObserver<T, List<T>> {
+        private final int count;
+        private List<T> buffer;
+
+        BufferCountObserver(Observer<List<T>> downstream, int count) {
+            super(downstream);
+            this.count = count;
+        }
+
+        @Override
+        public void onNext(T item) {
+            if (done) {
+                return;
+            }
+            List<T> current = buffer;
+            if (current == null) {
+                // Сразу под полный размер, чтобы пачка не перевыделяла массив по дороге
+                current = new ArrayList<>(count);
+                buffer = current;
+            }
+            current.add(item);
+            if (current.size() == count) {
+                buffer = null;
+                downstream.onNext(current);
+            }
+        }
+
+        @Override
+        public void onError(Throwable t) {
+            buffer = null;
+            super.onError(t);
+        }
+
+        @Override
+        public void onComplete() {
+            List<T> current = buffer;
+            buffer = null;
+            if (!done && current != null) {
+                downstream.onNext(current);
+            }
+            super.onComplete();
+        }
+    }
+
+    /**
+     * Элементы и таймер приходят из разных потоков, поэтому буфер и отправка вниз под монитором:
+     * так пачки не обгоняют друг друга и не пересекаются с onComplete.
+     */
+    private static final class BufferTimedObserver<T> implements Observer<T>, Disposable {
+        private static final int MAX_INITIAL_CAPACITY = 1024;
+
+        private final Observer<List<T>> downstream;
+        private final int count;
+        private final int initialCapacity;
+        private final long timespan;
+        private final TimeUnit unit;
+        private final Worker worker;
+        private final AtomicReference<Disposable> upstream = new AtomicReference<>();
+        private List<T> buffer;
+        private boolean done;
+        // Таймер текущей пачки. Поколение отсекает срабатывание, которое уже ждало монитор,
+        // когда пачку отправили по размеру
+        private Disposable timer;
+        private long generation;
+
+        BufferTimedObserver(Observer<List<T>> downstream, int count, long timespan, TimeUnit unit, Worker worker) {
+            this.downstream = downstream;
+            this.count = count;
+            this.initialCapacity = Math.min(count, MAX_INITIAL_CAPACITY);
+            this.timespan = timespan;
+            this.unit = unit;
+            this.worker = worker;
+            this.buffer = new ArrayList<>(initialCapacity);
+        }
+
+        @Override
+        public void onSubscribe(Disposable d) {
+            if (DisposableHelper.set(upstream, d)) {
+                downstream.onSubscribe(this);
+                synchronized (this) {
+                    restartTimer();
+                }
+            }
+        }
+
+        @Override
+        public void onNext(T item) {
+            synchronized (this) {
+                if (done) {
+                    return;
+                }
+                buffer.add(item);
+                if (buffer.size() >= count) {
+                    emit();
+                    // Новая пачка получает полный timespan, а не остаток от предыдущей
+                    restartTimer();
+                }
+            }
+        }
+
+        private void onTimeout(long expected) {
+            synchronized (this) {
+                if (done || expected != generation) {
+                    return;
+                }
+                if (!buffer.isEmpty()) {
+                    emit();
+                }
+                restartTimer();
+            }
+        }
+
+        private void restartTimer() {
+            long current = ++generation;
+            if (timer != null) {
+                timer.dispose();
+            }
+            timer = worker.schedule(() -> onTimeout(current), timespan, unit);
+        }
+
+        private void emit() {
+            List<T> current = buffer;
+            buffer = new ArrayList<>(initialCapacity);
+            downstream.onNext(current);
+        }
+
+        @Override
+        public void onError(Throwable t) {
+            synchronized (this) {
+                if (done) {
+                    return;
+                }
+                done = true;
+                buffer = null;
+                downstream.onError(t);
+            }
+            worker.dispose();
+        }
+
+        @Override
+        public void onComplete() {
+            synchronized (this) {
+                if (done) {
+                    return;
+                }
+                done = true;
+                if (!buffer.isEmpty()) {
+                    emit();
+                }
+                buffer = null;
+                downstream.onComplete();
+            }
+            worker.dispose();
+        }
+
+        @Override
+        public void dispose() {
+            DisposableHelper.dispose(upstream);
+            worker.dispose();
+        }
+
+        @Override
+        public boolean isDisposed() {
+            return DisposableHelper.isDisposed(upstream);
+        }
+    }
+
+    private static final class WindowCountObserver<T> extends OperatorObserver<T, Observable<T>> {
+        private final int count;
+        private UnicastWindow<T> window;
+        private int size;
+
+        WindowCountObserver(Observer<Observable<T>> downstream, int count) {
+            super(downstream);
+            this.count = count;
+        }
+
+        @Override
+        public void onNext(T item) {
+            if (done) {
+                return;
+            }
+            UnicastWindow<T> current = window;
+            if (current == null) {
+                current = new UnicastWindow<>();
+                window = current;
+                downstream.onNext(current.observable());
+            }
+            current.onNext(item);
+            if (++size == count) {
+                window = null;
+                size = 0;
+                current.onComplete();
+            }
+        }
+
+        @Override
+        public void onError(Throwable t) {
+            if (!done && window != null) {
+                window.onError(t);
+                window = null;
+            }
+            super.onError(t);
+        }
+
+        @Override
+        public void onComplete() {
+            if (!done && window != null) {
+                window.onComplete();
+                window = null;
+            }
+            super.onComplete();
+        }
+    }
+
+    /**
+     * Та же схема с монитором, что у {@link BufferTimedObserver}: таймер закрывает текущее окно.
+     */
+    private static final class WindowTimedObserver<T> implements Observer<T>, Disposable, Runnable {
+        private final Observer<Observable<T>> downstream;
+        private final long timespan;
+        private final TimeUnit unit;
+        private final Worker worker;
+        private final AtomicReference<Disposable> upstream = new AtomicReference<>();
+        private UnicastWindow<T> window;
+        private boolean done;
+
+        WindowTimedObserver(Observer<Observable<T>> downstream, long timespan, TimeUnit unit, Worker worker) {
+            this.downstream = downstream;
+            this.timespan = timespan;
+            this.unit = unit;
+            this.worker = worker;
+        }
+
+        @Override
+        public void onSubscribe(Disposable d) {
+            if (DisposableHelper.set(upstream, d)) {
+                downstream.onSubscribe(this);
+                worker.schedulePeriodically(this, timespan, timespan, unit);
+            }
+        }
+
+        @Override
+        public void onNext(T item) {
+            synchronized (this) {
+                if (done) {
+                    return;
+                }
+                if (window == null) {
+                    window = new UnicastWindow<>();
+                    downstream.onNext(window.observable());
+                }
+                window.onNext(item);
+            }
+        }
+
+        @Override
+        public void run() {
+            synchronized (this) {
+                if (window != null) {
+                    window.onComplete();
+                    window = null;
+                }
+            }
+        }
+
+        @Override
+        public void onError(Throwable t) {
+            synchronized (this) {
+                if (done) {
+                    return;
+                }
+                done = true;
+                if (window != null) {
+                    window.onError(t);
+                    window = null;
+                }
+                downstream.onError(t);
+            }
+            worker.dispose();
+        }
+
+        @Override
+        public void onComplete() {
+            synchronized (this) {
+                if (done) {
+                    return;
+                }
+                done = true;
+                if (window != null) {
+                    window.onComplete();
+                    window = null;
+                }
+                downstream.onComplete();
+            }
+            worker.dispose();
+        }
+
+        @Override
+        public void dispose() {
+            DisposableHelper.dispose(upstream);
+            worker.dispose();
+        }
+
+        @Override
+        public boolean isDisposed() {
+            return DisposableHelper.isDisposed(upstream);
+        }
+    }
+
+    /**
+     * Окно: копит элементы, пока на него не подписались, затем отдает их единственному наблюдателю.
+     * Производитель у очереди один (оператор окна), а слив по счетчику wip может идти
+     * как в его потоке, так и в потоке подписчика, но никогда в двух сразу.
+     */
+    private static final class UnicastWindow<T> implements Disposable {
+        private final SpscLinkedArrayQueue<T> queue = new SpscLinkedArrayQueue<>(DEFAULT_BUFFER_SIZE);
+        private final AtomicReference<Observer<T>> observer = new AtomicReference<>();
+        private final AtomicInteger wip = new AtomicInteger();
+        private volatile boolean done;
+        private volatile boolean disposed;
+        private Throwable error;
+
+        Observable<T> observable() {
+            return new Observable<>(this::subscribe);
+        }
+
+        private void subscribe(Observer<T> candidate) {
+            if (observer.compareAndSet(null, candidate)) {
+                candidate.onSubscribe(this);
+                drain();
+            } else {
+                candidate.onSubscribe(Disposable.disposed());
+                candidate.onError(new IllegalStateException("Window allows only one observer"));
+            }
+        }
+
+        void onNext(T item) {
+            queue.offer(item);
+            drain();
+        }
+
+        void onError(Throwable t) {
+            error = t;
+            done = true;
+            drain();
+        }
+
+        void onComplete() {
+            done = true;
+            drain();
+        }
+
+        private void drain() {
+            if (wip.getAndIncrement() != 0) {
+                return;
+            }
+            int missed = 1;
+            while (true) {
+                Observer<T> actual = observer.get();
+                if (actual != null) {
+                    while (true) {
+                        if (disposed) {
+                            queue.clear();
+                            return;
+                        }
+                        boolean terminated = done;
+                        T item = queue.poll();
+                        if (item == null) {
+                            if (terminated) {
+                                disposed = true;
+                                if (error != null) {
+                                    actual.onError(error);
+                                } else {
+                                    actual.onComplete();
+                                }
+                                return;
                             }
-                        } catch (Exception e) {
-                            observer.onError(e);
+                            break;
                         }
+                        actual.onNext(item);
                     }
+                }
 
-                    @Override
-                    public void onError(Throwable t) {
-                        observer.onError(t);
+                missed = wip.addAndGet(-missed);
+                if (missed == 0) {
+                    return;
+                }
+            }
+        }
+
+        /**
+         * Отписка от окна не останавливает источник: следующие окна продолжают приходить.
+         */
+        @Override
+        public void dispose() {
+            disposed = true;
+        }
+
+        @Override
+        public boolean isDisposed() {
+            return disposed;
+        }
+    }
+
+    private static final class IntervalTask implements Runnable {
+        private final Observer<Long> downstream;
+        // Тики одного worker идут по одному, поэтому счетчик без синхронизации
+        private long count;
+
+        IntervalTask(Observer<Long> downstream) {
+            this.downstream = downstream;
+        }
+
+        @Override
+        public void run() {
+            downstream.onNext(count++);
+        }
+    }
+
+    /**
+     * Номер index отличает актуальный таймер от уже отмененного, который все же успел сработать.
+     */
+    private static final class DebounceObserver<T> implements Observer<T>, Disposable {
+        private final Observer<T> downstream;
+        private final long timeout;
+        private final TimeUnit unit;
+        private final Worker worker;
+        private final AtomicReference<Disposable> upstream = new AtomicReference<>();
+        private Disposable pending;
+        private T latest;
+        private long index;
+        private boolean done;
+
+        DebounceObserver(Observer<T> downstream, long timeout, TimeUnit unit, Worker worker) {
+            this.downstream = downstream;
+            this.timeout = timeout;
+            this.unit = unit;
+            this.worker = worker;
+        }
+
+        @Override
+        public void onSubscribe(Disposable d) {
+            if (DisposableHelper.set(upstream, d)) {
+                downstream.onSubscribe(this);
+            }
+        }
+
+        @Override
+        public void onNext(T item) {
+            synchronized (this) {
+                if (done) {
+                    return;
+                }
+                long current = ++index;
+                latest = item;
+                if (pending != null) {
+                    pending.dispose();
+                }
+                pending = worker.schedule(() -> emit(current), timeout, unit);
+            }
+        }
+
+        private void emit(long expected) {
+            synchronized (this) {
+                if (!done && expected == index && latest != null) {
+                    T item = latest;
+                    latest = null;
+                    downstream.onNext(item);
+                }
+            }
+        }
+
+        @Override
+        public void onError(Throwable t) {
+            synchronized (this) {
+                if (done) {
+                    return;
+                }
+                done = true;
+                latest = null;
+                downstream.onError(t);
+            }
+            worker.dispose();
+        }
+
+        @Override
+        public void onComplete() {
+            synchronized (this) {
+                if (done) {
+                    return;
+                }
+                done = true;
+                if (latest != null) {
+                    T item = latest;
+                    latest = null;
+                    downstream.onNext(item);
+                }
+                downstream.onComplete();
+            }
+            worker.dispose();
+        }
+
+        @Override
+        public void dispose() {
+            DisposableHelper.dispose(upstream);
+            worker.dispose();
+        }
+
+        @Override
+        public boolean isDisposed() {
+            return DisposableHelper.isDisposed(upstream);
+        }
+    }
+
+    /**
+     * onNext только перезаписывает последний элемент без блокировок, а под монитором
+     * лишь тик таймера и завершение, чтобы они не пересеклись в наблюдателе.
+     */
+    private static final class SampleObserver<T> implements Observer<T>, Disposable, Runnable {
+        private final Observer<T> downstream;
+        private final long period;
+        private final TimeUnit unit;
+        private final Worker worker;
+        private final AtomicReference<Disposable> upstream = new AtomicReference<>();
+        private final AtomicReference<T> latest = new AtomicReference<>();
+        private boolean done;
+
+        SampleObserver(Observer<T> downstream, long period, TimeUnit unit, Worker worker) {
+            this.downstream = downstream;
+            this.period = period;
+            this.unit = unit;
+            this.worker = worker;
+        }
+
+        @Override
+        public void onSubscribe(Disposable d) {
+            if (DisposableHelper.set(upstream, d)) {
+                downstream.onSubscribe(this);
+                worker.schedulePeriodically(this, period, period, unit);
+            }
+        }
+
+        @Override
+        public void onNext(T item) {
+            latest.lazySet(item);
+        }
+
+        @Override
+        public void run() {
+            T item = latest.getAndSet(null);
+            if (item != null) {
+                synchronized (this) {
+                    if (!done) {
+                        downstream.onNext(item);
                     }
+                }
+            }
+        }
 
-                    @Override
-                    public void onComplete() {
-                        observer.onComplete();
+        @Override
+        public void onError(Throwable t) {
+            terminate(t);
+        }
+
+        @Override
+        public void onComplete() {
+            terminate(null);
+        }
+
+        private void terminate(Throwable error) {
+            synchronized (this) {
+                if (done) {
+                    return;
+                }
+                done = true;
+                latest.set(null);
+                if (error != null) {
+                    downstream.onError(error);
+                } else {
+                    downstream.onComplete();
+                }
+            }
+            worker.dispose();
+        }
+
+        @Override
+        public void dispose() {
+            DisposableHelper.dispose(upstream);
+            worker.dispose();
+        }
+
+        @Override
+        public boolean isDisposed() {
+            return DisposableHelper.isDisposed(upstream);
+        }
+    }
+
+    /**
+     * Без блокировок: каждый сигнал сначала переводит index CAS-ом, поэтому таймер, заведенный
+     * на старый index, не может выдать ошибку посреди onNext. Long.MAX_VALUE - поток завершен.
+     */
+    private static final class TimeoutObserver<T> implements Observer<T>, Disposable {
+        private final Observer<T> downstream;
+        private final long timeout;
+        private final TimeUnit unit;
+        private final Worker worker;
+        private final AtomicReference<Disposable> upstream = new AtomicReference<>();
+        private final AtomicLong index = new AtomicLong();
+        private final AtomicReference<Disposable> timer = new AtomicReference<>();
+
+        TimeoutObserver(Observer<T> downstream, long timeout, TimeUnit unit, Worker worker) {
+            this.downstream = downstream;
+            this.timeout = timeout;
+            this.unit = unit;
+            this.worker = worker;
+        }
+
+        @Override
+        public void onSubscribe(Disposable d) {
+            if (DisposableHelper.set(upstream, d)) {
+                downstream.onSubscribe(this);
+                startTimer(0);
+            }
+        }
+
+        private void startTimer(long expected) {
+            Disposable previous = timer.getAndSet(worker.schedule(() -> onTimeout(expected), timeout, unit));
+            if (previous != null) {
+                previous.dispose();
+            }
+        }
+
+        private void onTimeout(long expected) {
+            if (index.compareAndSet(expected, Long.MAX_VALUE)) {
+                DisposableHelper.dispose(upstream);
+                downstream.onError(new TimeoutException(
+                        "No item within " + timeout + " " + unit.toString().toLowerCase()));
+                worker.dispose();
+            }
+        }
+
+        @Override
+        public void onNext(T item) {
+            long current = index.get();
+            if (current == Long.MAX_VALUE || !index.compareAndSet(current, current + 1)) {
+                return;
+            }
+            downstream.onNext(item);
+            startTimer(current + 1);
+        }
+
+        @Override
+        public void onError(Throwable t) {
+            if (index.getAndSet(Long.MAX_VALUE) != Long.MAX_VALUE) {
+                worker.dispose();
+                downstream.onError(t);
+            }
+        }
+
+        @Override
+        public void onComplete() {
+            if (index.getAndSet(Long.MAX_VALUE) != Long.MAX_VALUE) {
+                worker.dispose();
+                downstream.onComplete();
+            }
+        }
+
+        @Override
+        public void dispose() {
+            DisposableHelper.dispose(upstream);
+            worker.dispose();
+        }
+
+        @Override
+        public boolean isDisposed() {
+            return DisposableHelper.isDisposed(upstream);
+        }
+    }
+
+    private static final class CreateEmitter<T> implements ObservableEmitter<T> {
+        private final Observer<T> downstream;
+        private final AtomicReference<Disposable> resource = new AtomicReference<>();
+
+        CreateEmitter(Observer<T> downstream) {
+            this.downstream = downstream;
+        }
+
+        @Override
+        public void onNext(T item) {
+            if (!isDisposed()) {
+                downstream.onNext(item);
+            }
+        }
+
+        @Override
+        public void onError(Throwable t) {
+            if (!isDisposed()) {
+                try {
+                    downstream.onError(t);
+                } finally {
+                    dispose();
+                }
+            }
+        }
+
+        @Override
+        public void onComplete() {
+            if (!isDisposed()) {
+                try {
+                    downstream.onComplete();
+                } finally {
+                    dispose();
+                }
+            }
+        }
+
+        @Override
+        public void setDisposable(Disposable d) {
+            DisposableHelper.set(resource, d);
+        }
+
+        @Override
+        public void dispose() {
+            DisposableHelper.dispose(resource);
+        }
+
+        @Override
+        public boolean isDisposed() {
+            return DisposableHelper.isDisposed(resource);
+        }
+    }
+
+    /**
+     * Конец цепочки: после отписки сигналы до наблюдателя не доходят, даже если источник их еще шлет.
+     */
+    private static final class SubscriberObserver<T> implements Observer<T>, Disposable {
+        private final Observer<T> actual;
+        private final AtomicReference<Disposable> upstream = new AtomicReference<>();
+
+        SubscriberObserver(Observer<T> actual) {
+            this.actual = actual;
+        }
+
+        @Override
+        public void onSubscribe(Disposable d) {
+            if (DisposableHelper.set(upstream, d)) {
+                actual.onSubscribe(this);
+            }
+        }
+
+        /**
+         * Исключение из onNext наблюдателя завершает подписку: источник отменяется,
+         * а наблюдатель получает его же в onError.
+         */
+        @Override
+        public void onNext(T item) {
+            if (!isDisposed()) {
+                try {
+                    actual.onNext(item);
+                } catch (Throwable e) {
+                    dispose();
+                    actual.onError(e);
+                }
+            }
+        }
+
+        @Override
+        public void onError(Throwable t) {
+            if (!isDisposed()) {
+                dispose();
+                actual.onError(t);
+            }
+        }
+
+        @Override
+        public void onComplete() {
+            if (!isDisposed()) {
+                dispose();
+                actual.onComplete();
+            }
+        }
+
+        @Override
+        public void dispose() {
+            DisposableHelper.dispose(upstream);
+        }
+
+        @Override
+        public boolean isDisposed() {
+            return DisposableHelper.isDisposed(upstream);
+        }
+    }
+
+    /**
+     * Отписка до того, как worker дошел до подписки, отменяет саму задачу подписки.
+     */
+    private static final class SubscribeOnObserver<T> implements Observer<T>, Disposable {
+        private final Observer<T> downstream;
+        private final Worker worker;
+        private final AtomicReference<Disposable> upstream = new AtomicReference<>();
+
+        SubscribeOnObserver(Observer<T> downstream, Worker worker) {
+            this.downstream = downstream;
+            this.worker = worker;
+        }
+
+        @Override
+        public void onSubscribe(Disposable d) {
+            DisposableHelper.set(upstream, d);
+        }
+
+        @Override
+        public void onNext(T item) {
+            downstream.onNext(item);
+        }
+
+        @Override
+        public void onError(Throwable t) {
+            downstream.onError(t);
+        }
+
+        @Override
+        public void onComplete() {
+            downstream.onComplete();
+        }
+
+        @Override
+        public void dispose() {
+            DisposableHelper.dispose(upstream);
+            worker.dispose();
+        }
+
+        @Override
+        public boolean isDisposed() {
+            return DisposableHelper.isDisposed(upstream);
+        }
+    }
+
+    /**
+     * Сигналы копятся в очереди, а в worker уходит одна задача слива на целую пачку: счетчик wip
+     * гарантирует, что слив работает не более чем в одном потоке, поэтому порядок сохраняется
+     * даже на многопоточном планировщике.
+     */
+    private static final class ObserveOnObserver<T> implements Observer<T>, Disposable, Runnable {
+        private final Observer<T> downstream;
+        private final Worker worker;
+        private final SpscLinkedArrayQueue<T> queue;
+        private final AtomicReference<Disposable> upstream = new AtomicReference<>();
+        private final AtomicInteger wip = new AtomicInteger();
+        private volatile boolean done;
+        private volatile boolean disposed;
+        private Throwable error;
+
+        ObserveOnObserver(Observer<T> downstream, Worker worker, int bufferSize) {
+            this.downstream = downstream;
+            this.worker = worker;
+            this.queue = new SpscLinkedArrayQueue<>(bufferSize);
+        }
+
+        @Override
+        public void onSubscribe(Disposable d) {
+            if (DisposableHelper.set(upstream, d)) {
+                downstream.onSubscribe(this);
+            }
+        }
+
+        @Override
+        public void onNext(T item) {
+            if (done) {
+                return;
+            }
+            queue.offer(item);
+            schedule();
+        }
+
+        @Override
+        public void onError(Throwable t) {
+            if (done) {
+                return;
+            }
+            error = t;
+            done = true;
+            schedule();
+        }
+
+        @Override
+        public void onComplete() {
+            if (done) {
+                return;
+            }
+            done = true;
+            schedule();
+        }
+
+        private void schedule() {
+            if (wip.getAndIncrement() == 0) {
+                worker.execute(this);
+            }
+        }
+
+        @Override
+        public void run() {
+            int missed = 1;
+            while (true) {
+                while (true) {
+                    boolean terminated = done;
+                    T item = queue.poll();
+                    boolean empty = item == null;
+                    if (checkTerminated(terminated, empty)) {
+                        return;
                     }
-                })
-        );
+                    if (empty) {
+                        break;
+                    }
+                    try {
+                        downstream.onNext(item);
+                    } catch (Throwable e) {
+                        // wip уже не вернется к 0, и следующий слив не начнется: поток закрываем явно,
+                        // а исключение уходит обработчику потока через worker
+                        dispose();
+                        throw e;
+                    }
+                }
+
+                missed = wip.addAndGet(-missed);
+                if (missed == 0) {
+                    return;
+                }
+            }
+        }
+
+        private boolean checkTerminated(boolean terminated, boolean empty) {
+            if (disposed) {
+                queue.clear();
+                return true;
+            }
+            if (terminated) {
+                if (error != null) {
+                    disposed = true;
+                    queue.clear();
+                    downstream.onError(error);
+                    worker.dispose();
+                    return true;
+                }
+                if (empty) {
+                    disposed = true;
+                    downstream.onComplete();
+                    worker.dispose();
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        /**
+         * Отменяет и источник, и еще не доставленные сигналы: очередь выбрасывает слив.
+         */
+        @Override
+        public void dispose() {
+            if (!disposed) {
+                disposed = true;
+                DisposableHelper.dispose(upstream);
+                worker.dispose();
+            }
+        }
+
+        @Override
+        public boolean isDisposed() {
+            return disposed;
+        }
     }
-}
\ No newline at end of file
+}
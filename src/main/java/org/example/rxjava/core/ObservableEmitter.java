@@ -0,0 +1,12 @@
+package org.example.rxjava.core;
+
+/**
+ * Наблюдатель, которого получает источник Observable.create. Долгий источник проверяет
+ * {@link #isDisposed()} и заканчивает работу, когда от него отписались.
+ */
+public interface ObservableEmitter<T> extends Observer<T>, Disposable {
+    /**
+     * Ресурс источника (поток, соединение, таймер), который нужно освободить при отписке или завершении.
+     */
+    void setDisposable(Disposable resource);
+}
@@ -0,0 +1,6 @@
+package org.example.rxjava.core;
+
+@FunctionalInterface
+public interface ObservableOnSubscribe<T> {
+    void subscribe(ObservableEmitter<T> emitter) throws Exception;
+}
@@ -1,7 +1,14 @@
 package org.example.rxjava.core;
 
 public interface Observer<T> {
+    /**
+     * Вызывается до первого сигнала. Через d наблюдатель может отписаться,
+     * и отписка дойдет до источника через все операторы.
+     */
+    default void onSubscribe(Disposable d) {
+    }
+
     void onNext(T item);
     void onError(Throwable t);
     void onComplete();
-} 
\ No newline at end of file
+}
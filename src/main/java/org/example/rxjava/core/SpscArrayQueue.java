@@ -0,0 +1,65 @@
+package org.example.rxjava.core;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+
+/**
+ * Ограниченная очередь для одного производителя и одного потребителя на кольцевом массиве.
+ * Индексы у каждой стороны свои и обычные, видимость дает release/acquire на слотах:
+ * пустой слот - свободное место для производителя, заполненный - элемент для потребителя.
+ */
+final class SpscArrayQueue<T> {
+    private static final VarHandle SLOTS = MethodHandles.arrayElementVarHandle(Object[].class);
+
+    private final Object[] buffer;
+    private final int mask;
+    private long producerIndex;
+    private long consumerIndex;
+
+    SpscArrayQueue(int capacity) {
+        int length = 1 << (32 - Integer.numberOfLeadingZeros(Math.max(capacity, 2) - 1));
+        this.buffer = new Object[length];
+        this.mask = length - 1;
+    }
+
+    /**
+     * Только из потока-производителя.
+     */
+    boolean offer(T item) {
+        int offset = (int) (producerIndex & mask);
+        if (SLOTS.getAcquire(buffer, offset) != null) {
+            return false;
+        }
+        SLOTS.setRelease(buffer, offset, item);
+        producerIndex++;
+        return true;
+    }
+
+    /**
+     * Только из потока-потребителя.
+     */
+    @SuppressWarnings("unchecked")
+    T poll() {
+        int offset = (int) (consumerIndex & mask);
+        Object item = SLOTS.getAcquire(buffer, offset);
+        if (item == null) {
+            return null;
+        }
+        SLOTS.setRelease(buffer, offset, null);
+        consumerIndex++;
+        return (T) item;
+    }
+
+    /**
+     * Только из потока-потребителя.
+     */
+    boolean isEmpty() {
+        return SLOTS.getAcquire(buffer, (int) (consumerIndex & mask)) == null;
+    }
+
+    void clear() {
+        while (poll() != null) {
+            // выбрасываем
+        }
+    }
+}
@@ -0,0 +1,97 @@
+package org.example.rxjava.core;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+
+/**
+ * Неограниченная очередь для одного производителя и одного потребителя: цепочка массивов-звеньев.
+ * Как и в {@link SpscArrayQueue}, видимость дает release/acquire на слотах, а при заполнении звена
+ * производитель публикует следующее через release-запись ссылки next.
+ * Нужна там, где источник не знает о запросах и размер очереди заранее не ограничить.
+ */
+final class SpscLinkedArrayQueue<T> {
+    private static final VarHandle SLOTS = MethodHandles.arrayElementVarHandle(Object[].class);
+    private static final VarHandle NEXT;
+
+    static {
+        try {
+            NEXT = MethodHandles.lookup().findVarHandle(Chunk.class, "next", Chunk.class);
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    private final int chunkSize;
+    private Chunk producerChunk;
+    private int producerOffset;
+    private Chunk consumerChunk;
+    private int consumerOffset;
+
+    SpscLinkedArrayQueue(int chunkSize) {
+        this.chunkSize = Math.max(chunkSize, 2);
+        this.producerChunk = new Chunk(this.chunkSize);
+        this.consumerChunk = producerChunk;
+    }
+
+    /**
+     * Только из потока-производителя.
+     */
+    void offer(T item) {
+        if (producerOffset == chunkSize) {
+            Chunk next = new Chunk(chunkSize);
+            NEXT.setRelease(producerChunk, next);
+            producerChunk = next;
+            producerOffset = 0;
+        }
+        SLOTS.setRelease(producerChunk.items, producerOffset++, item);
+    }
+
+    /**
+     * Только из потока-потребителя.
+     */
+    @SuppressWarnings("unchecked")
+    T poll() {
+        if (consumerOffset == chunkSize) {
+            Chunk next = (Chunk) NEXT.getAcquire(consumerChunk);
+            if (next == null) {
+                return null;
+            }
+            consumerChunk = next;
+            consumerOffset = 0;
+        }
+        Object item = SLOTS.getAcquire(consumerChunk.items, consumerOffset);
+        if (item == null) {
+            return null;
+        }
+        // Прочитанное звено больше не нужно производителю, слот можно отпустить для GC
+        consumerChunk.items[consumerOffset++] = null;
+        return (T) item;
+    }
+
+    /**
+     * Только из потока-потребителя.
+     */
+    boolean isEmpty() {
+        if (consumerOffset == chunkSize) {
+            Chunk next = (Chunk) NEXT.getAcquire(consumerChunk);
+            return next == null || SLOTS.getAcquire(next.items, 0) == null;
+        }
+        return SLOTS.getAcquire(consumerChunk.items, consumerOffset) == null;
+    }
+
+    void clear() {
+        while (poll() != null) {
+            // выбрасываем
+        }
+    }
+
+    private static final class Chunk {
+        final Object[] items;
+        @SuppressWarnings("unused")
+        Chunk next;
+
+        Chunk(int size) {
+            this.items = new Object[size];
+        }
+    }
+}
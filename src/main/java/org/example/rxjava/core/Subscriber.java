@@ -0,0 +1,10 @@
+package org.example.rxjava.core;
+
+import java.util.concurrent.Flow;
+
+/**
+ * Подписчик Flowable. Получает не больше элементов, чем запросил через {@link Flow.Subscription#request(long)}.
+ * Это {@link Flow.Subscriber}, поэтому на Flowable можно подписать любой подписчик java.util.concurrent.Flow.
+ */
+public interface Subscriber<T> extends Flow.Subscriber<T> {
+}
@@ -0,0 +1,10 @@
+package org.example.rxjava.core;
+
+import java.util.concurrent.Flow;
+
+/**
+ * Связь подписчика с Flowable: подписчик сам говорит, сколько элементов готов принять.
+ * Контракт {@link Flow.Subscription}: request(n) с n <= 0 завершает поток ошибкой IllegalArgumentException.
+ */
+public interface Subscription extends Flow.Subscription {
+}
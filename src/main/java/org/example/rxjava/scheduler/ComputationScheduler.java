@@ -1,29 +1,70 @@
 package org.example.rxjava.scheduler;
 
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.atomic.AtomicInteger;
 
-public class ComputationScheduler implements Scheduler {
-    private final ExecutorService executor = Executors.newFixedThreadPool(
-            Runtime.getRuntime().availableProcessors());
+/**
+ * N однопоточных циклов событий по числу ядер. Каждый worker закреплен за одним циклом
+ * по кругу: его задачи выполняются строго по порядку и на одном и том же потоке.
+ */
+public class ComputationScheduler extends LazyScheduler<ComputationScheduler.EventLoops> {
+    private final int parallelism;
+
+    public ComputationScheduler() {
+        this(Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * @param parallelism число циклов событий
+     */
+    public ComputationScheduler(int parallelism) {
+        if (parallelism < 1) {
+            throw new IllegalArgumentException("parallelism must be positive");
+        }
+        this.parallelism = parallelism;
+    }
 
     @Override
     public void execute(Runnable task) {
-        executor.execute(task);
+        resources().next().execute(task);
     }
 
     @Override
     public Worker createWorker() {
-        return new Worker() {
-            @Override
-            public void execute(Runnable task) {
-                executor.execute(task);
-            }
-
-            @Override
-            public void dispose() {
-                executor.shutdown();
-            }
-        };
+        ScheduledExecutorService loop = resources().next();
+        return new ExecutorWorker(loop, loop);
+    }
+
+    @Override
+    EventLoops create() {
+        RxThreadFactory threadFactory = new RxThreadFactory("rx-computation-");
+        ScheduledExecutorService[] loops = new ScheduledExecutorService[parallelism];
+        for (int i = 0; i < parallelism; i++) {
+            ScheduledThreadPoolExecutor loop = new ScheduledThreadPoolExecutor(1, threadFactory);
+            loop.setRemoveOnCancelPolicy(true);
+            loops[i] = loop;
+        }
+        return new EventLoops(loops);
+    }
+
+    @Override
+    void destroy(EventLoops resources) {
+        for (ScheduledExecutorService loop : resources.loops) {
+            loop.shutdownNow();
+        }
+    }
+
+    static final class EventLoops {
+        private final ScheduledExecutorService[] loops;
+        private final AtomicInteger cursor = new AtomicInteger();
+
+        EventLoops(ScheduledExecutorService[] loops) {
+            this.loops = loops;
+        }
+
+        ScheduledExecutorService next() {
+            return loops[Math.floorMod(cursor.getAndIncrement(), loops.length)];
+        }
     }
 }
@@ -0,0 +1,193 @@
+package org.example.rxjava.scheduler;
+
+import org.example.rxjava.core.Disposable;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Worker поверх общего executor планировщика. Помнит свои еще не выполненные задачи и таймеры:
+ * dispose отменяет только их, а сам executor продолжает обслуживать остальных.
+ * Таймер лишь отсчитывает время, задача по нему все равно идет через {@link #execute(Runnable)}.
+ */
+class ExecutorWorker implements Worker {
+    private final Executor executor;
+    private final ScheduledExecutorService timer;
+    private final Set<WorkerTask> tasks = ConcurrentHashMap.newKeySet();
+    private final Set<TimerDisposable> timers = ConcurrentHashMap.newKeySet();
+    private volatile boolean disposed;
+
+    ExecutorWorker(Executor executor, ScheduledExecutorService timer) {
+        this.executor = executor;
+        this.timer = timer;
+    }
+
+    @Override
+    public void execute(Runnable task) {
+        if (disposed) {
+            return;
+        }
+        WorkerTask workerTask = new WorkerTask(task);
+        tasks.add(workerTask);
+        // dispose мог пройти между проверкой и добавлением и не увидеть задачу
+        if (disposed) {
+            tasks.remove(workerTask);
+            return;
+        }
+        try {
+            executor.execute(workerTask);
+        } catch (RejectedExecutionException e) {
+            tasks.remove(workerTask);
+            throw e;
+        }
+    }
+
+    @Override
+    public Disposable schedule(Runnable task, long delay, TimeUnit unit) {
+        if (disposed) {
+            return Disposable.disposed();
+        }
+        TimerDisposable timed = new TimerDisposable();
+        timers.add(timed);
+        timed.setFuture(timer.schedule(() -> {
+            timers.remove(timed);
+            execute(task);
+        }, delay, unit));
+        if (disposed) {
+            timed.dispose();
+        }
+        return timed;
+    }
+
+    @Override
+    public Disposable schedulePeriodically(Runnable task, long initialDelay, long period, TimeUnit unit) {
+        if (disposed) {
+            return Disposable.disposed();
+        }
+        TimerDisposable timed = new TimerDisposable();
+        timers.add(timed);
+        timed.setFuture(timer.scheduleAtFixedRate(() -> execute(task), initialDelay, period, unit));
+        if (disposed) {
+            timed.dispose();
+        }
+        return timed;
+    }
+
+    @Override
+    public void dispose() {
+        disposed = true;
+        for (TimerDisposable timed : timers) {
+            timed.dispose();
+        }
+        for (WorkerTask task : tasks) {
+            task.cancelFromOutside();
+        }
+        tasks.clear();
+    }
+
+    @Override
+    public boolean isDisposed() {
+        return disposed;
+    }
+
+    /**
+     * Обертка задачи с отменой. Исключение задачи не прячется в Future, которое никто не читает,
+     * а уходит обработчику непойманных исключений потока: ScheduledThreadPoolExecutor сам его
+     * туда не передаст, поэтому передаем явно и одинаково для всех планировщиков.
+     */
+    private final class WorkerTask implements Runnable {
+        private static final int READY = 0;
+        private static final int RUNNING = 1;
+        private static final int INTERRUPTING = 2;
+        private static final int INTERRUPTED = 3;
+        private static final int DONE = 4;
+        private static final int CANCELLED = 5;
+
+        private final Runnable task;
+        private final AtomicInteger state = new AtomicInteger(READY);
+        private volatile Thread runner;
+
+        WorkerTask(Runnable task) {
+            this.task = task;
+        }
+
+        @Override
+        public void run() {
+            Thread current = Thread.currentThread();
+            runner = current;
+            if (!state.compareAndSet(READY, RUNNING)) {
+                return;
+            }
+            try {
+                task.run();
+            } catch (Throwable e) {
+                current.getUncaughtExceptionHandler().uncaughtException(current, e);
+            } finally {
+                if (!state.compareAndSet(RUNNING, DONE)) {
+                    // Отмена прерывала этот запуск: ждем, пока interrupt дойдет, и снимаем флаг,
+                    // чтобы он не достался следующей задаче потока
+                    while (state.get() == INTERRUPTING) {
+                        Thread.onSpinWait();
+                    }
+                    Thread.interrupted();
+                }
+                tasks.remove(this);
+            }
+        }
+
+        /**
+         * Прерывает задачу, только если ее выполняет другой поток: dispose из самой задачи
+         * (например, из onNext) не должен оставлять флаг прерывания потоку пула.
+         */
+        void cancelFromOutside() {
+            if (state.compareAndSet(READY, CANCELLED)) {
+                return;
+            }
+            Thread thread = runner;
+            if (thread != Thread.currentThread() && state.compareAndSet(RUNNING, INTERRUPTING)) {
+                try {
+                    thread.interrupt();
+                } finally {
+                    state.set(INTERRUPTED);
+                }
+            }
+        }
+    }
+
+    /**
+     * Отмена может прийти раньше, чем таймер вернул future: тогда future отменяется при установке.
+     */
+    private final class TimerDisposable implements Disposable {
+        private volatile ScheduledFuture<?> future;
+        private volatile boolean cancelled;
+
+        void setFuture(ScheduledFuture<?> future) {
+            this.future = future;
+            if (cancelled) {
+                future.cancel(false);
+            }
+        }
+
+        @Override
+        public void dispose() {
+            cancelled = true;
+            timers.remove(this);
+            ScheduledFuture<?> current = future;
+            if (current != null) {
+                current.cancel(false);
+            }
+        }
+
+        @Override
+        public boolean isDisposed() {
+            ScheduledFuture<?> current = future;
+            return cancelled || current != null && current.isDone();
+        }
+    }
+}
@@ -1,28 +1,27 @@
 package org.example.rxjava.scheduler;
 
-import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 
-public class IoScheduler implements Scheduler {
-    private final ExecutorService executor = Executors.newCachedThreadPool();
+public class IoScheduler extends LazyScheduler<TimedExecutor> {
 
     @Override
     public void execute(Runnable task) {
-        executor.execute(task);
+        resources().executor.execute(task);
     }
 
     @Override
     public Worker createWorker() {
-        return new Worker() {
-            @Override
-            public void execute(Runnable task) {
-                executor.execute(task);
-            }
+        TimedExecutor resources = resources();
+        return new ExecutorWorker(new SerialExecutor(resources.executor), resources.timer);
+    }
 
-            @Override
-            public void dispose() {
-                executor.shutdown();
-            }
-        };
+    @Override
+    TimedExecutor create() {
+        return new TimedExecutor(Executors.newCachedThreadPool(new RxThreadFactory("rx-io-")), "rx-io-timer-");
+    }
+
+    @Override
+    void destroy(TimedExecutor resources) {
+        resources.shutdownNow();
     }
 }
@@ -0,0 +1,47 @@
+package org.example.rxjava.scheduler;
+
+/**
+ * Планировщик, который создает свои потоки при первом обращении, а не при загрузке класса,
+ * и умеет останавливаться и запускаться заново.
+ *
+ * @param <R> то, что держит потоки: executor или набор executor
+ */
+abstract class LazyScheduler<R> implements Scheduler {
+    private final Object lock = new Object();
+    private volatile R resources;
+
+    abstract R create();
+
+    abstract void destroy(R resources);
+
+    final R resources() {
+        R current = resources;
+        if (current == null) {
+            synchronized (lock) {
+                current = resources;
+                if (current == null) {
+                    current = create();
+                    resources = current;
+                }
+            }
+        }
+        return current;
+    }
+
+    @Override
+    public void start() {
+        resources();
+    }
+
+    @Override
+    public void shutdown() {
+        R current;
+        synchronized (lock) {
+            current = resources;
+            resources = null;
+        }
+        if (current != null) {
+            destroy(current);
+        }
+    }
+}
@@ -5,4 +5,19 @@ public interface Scheduler {
     void execute(Runnable task);
 
     Worker createWorker();
-} 
\ No newline at end of file
+
+    /**
+     * Поднимает потоки заранее. Без вызова они создаются при первой задаче.
+     * По умолчанию ничего не делает: планировщику без собственных потоков поднимать нечего.
+     */
+    default void start() {
+    }
+
+    /**
+     * Останавливает потоки планировщика. Worker, созданные до остановки, больше не работают,
+     * а следующий execute или createWorker снова запустит планировщик.
+     * По умолчанию ничего не делает.
+     */
+    default void shutdown() {
+    }
+}
@@ -1,11 +1,33 @@
 package org.example.rxjava.scheduler;
 
+/**
+ * Общие планировщики. Потоки создаются при первом использовании, {@link #start()} поднимает их заранее.
+ */
 public class Schedulers {
     public static final Scheduler IO = new IoScheduler();
     public static final Scheduler COMPUTATION = new ComputationScheduler();
     public static final Scheduler SINGLE = new SingleScheduler();
+    public static final Scheduler VIRTUAL = new VirtualScheduler();
 
     private Schedulers() {
         throw new IllegalStateException("Unknown scheduler type");
     }
-} 
\ No newline at end of file
+
+    public static void start() {
+        IO.start();
+        COMPUTATION.start();
+        SINGLE.start();
+        VIRTUAL.start();
+    }
+
+    /**
+     * Останавливает потоки всех общих планировщиков. После этого их можно использовать снова:
+     * они запустятся при следующем обращении.
+     */
+    public static void shutdown() {
+        IO.shutdown();
+        COMPUTATION.shutdown();
+        SINGLE.shutdown();
+        VIRTUAL.shutdown();
+    }
+}
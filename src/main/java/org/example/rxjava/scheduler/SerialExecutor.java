@@ -0,0 +1,51 @@
+package org.example.rxjava.scheduler;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Выполняет задачи строго по одной и по порядку поверх любого executor, в том числе такого,
+ * что на каждую задачу заводит отдельный поток. В executor уходит одна задача слива на всю
+ * накопившуюся очередь, счетчик wip не дает запустить второй слив параллельно.
+ */
+class SerialExecutor implements Executor, Runnable {
+    private final Executor delegate;
+    private final Queue<Runnable> queue = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger wip = new AtomicInteger();
+
+    SerialExecutor(Executor delegate) {
+        this.delegate = delegate;
+    }
+
+    @Override
+    public void execute(Runnable task) {
+        queue.offer(task);
+        if (wip.getAndIncrement() == 0) {
+            try {
+                delegate.execute(this);
+            } catch (RejectedExecutionException e) {
+                queue.clear();
+                wip.set(0);
+                throw e;
+            }
+        }
+    }
+
+    @Override
+    public void run() {
+        int missed = 1;
+        while (true) {
+            Runnable task;
+            while ((task = queue.poll()) != null) {
+                task.run();
+            }
+            missed = wip.addAndGet(-missed);
+            if (missed == 0) {
+                return;
+            }
+        }
+    }
+}
@@ -1,28 +1,30 @@
 package org.example.rxjava.scheduler;
 
-import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
 
-public class SingleScheduler implements Scheduler {
-    private final ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor();
+public class SingleScheduler extends LazyScheduler<ScheduledExecutorService> {
 
     @Override
     public void execute(Runnable task) {
-        executor.execute(task);
+        resources().execute(task);
     }
 
     @Override
     public Worker createWorker() {
-        return new Worker() {
-            @Override
-            public void execute(Runnable task) {
-                executor.execute(task);
-            }
+        ScheduledExecutorService executor = resources();
+        return new ExecutorWorker(executor, executor);
+    }
 
-            @Override
-            public void dispose() {
-                executor.shutdown();
-            }
-        };
+    @Override
+    ScheduledExecutorService create() {
+        ScheduledThreadPoolExecutor executor = new ScheduledThreadPoolExecutor(1, new RxThreadFactory("rx-single-"));
+        executor.setRemoveOnCancelPolicy(true);
+        return executor;
+    }
+
+    @Override
+    void destroy(ScheduledExecutorService resources) {
+        resources.shutdownNow();
     }
 }
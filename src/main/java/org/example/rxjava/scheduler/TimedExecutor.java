@@ -0,0 +1,26 @@
+package org.example.rxjava.scheduler;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+
+/**
+ * Executor без отложенного запуска и отдельный поток-таймер к нему: таймер только отсчитывает
+ * время и передает задачу в executor, сама задача на нем не выполняется.
+ */
+final class TimedExecutor {
+    final ExecutorService executor;
+    final ScheduledExecutorService timer;
+
+    TimedExecutor(ExecutorService executor, String timerName) {
+        this.executor = executor;
+        ScheduledThreadPoolExecutor timer = new ScheduledThreadPoolExecutor(1, new RxThreadFactory(timerName));
+        timer.setRemoveOnCancelPolicy(true);
+        this.timer = timer;
+    }
+
+    void shutdownNow() {
+        timer.shutdownNow();
+        executor.shutdownNow();
+    }
+}
@@ -0,0 +1,33 @@
+package org.example.rxjava.scheduler;
+
+import java.util.concurrent.Executors;
+
+/**
+ * Каждая порция работы - отдельный виртуальный поток, поэтому блокирующий код в subscribeOn
+ * не расходует платформенные потоки. Задачи одного worker выполняются по порядку и по одной.
+ */
+public class VirtualScheduler extends LazyScheduler<TimedExecutor> {
+
+    @Override
+    public void execute(Runnable task) {
+        resources().executor.execute(task);
+    }
+
+    @Override
+    public Worker createWorker() {
+        TimedExecutor resources = resources();
+        return new ExecutorWorker(new SerialExecutor(resources.executor), resources.timer);
+    }
+
+    @Override
+    TimedExecutor create() {
+        return new TimedExecutor(
+                Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("rx-virtual-", 1).factory()),
+                "rx-virtual-timer-");
+    }
+
+    @Override
+    void destroy(TimedExecutor resources) {
+        resources.shutdownNow();
+    }
+}
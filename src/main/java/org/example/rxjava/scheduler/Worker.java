@@ -1,6 +1,80 @@
 package org.example.rxjava.scheduler;
 
-public interface Worker {
+import org.example.rxjava.core.CompositeDisposable;
+import org.example.rxjava.core.Disposable;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Последовательность задач на планировщике: задачи одного worker выполняются по одной
+ * и в порядке постановки. dispose отменяет еще не выполненные задачи этого worker
+ * и прерывает выполняющуюся, не трогая общий пул планировщика.
+ * <p>
+ * Обязательны только execute и dispose. Отложенные задачи по умолчанию ждут своего времени
+ * на общем таймере JDK ({@link CompletableFuture#delayedExecutor}), а потом идут в execute;
+ * встроенные worker заменяют это своим таймером.
+ */
+public interface Worker extends Disposable {
     void execute(Runnable task);
-    void dispose();
+
+    /**
+     * По умолчанию false: worker, который не следит за своим состоянием, считается рабочим.
+     */
+    @Override
+    default boolean isDisposed() {
+        return false;
+    }
+
+    /**
+     * Выполняет task через delay, как {@link #execute(Runnable)}.
+     *
+     * @return отмена, пока задача еще ждет своего времени
+     */
+    default Disposable schedule(Runnable task, long delay, TimeUnit unit) {
+        // Таймер JDK не отменяется: задача сама проверяет флаг, когда приходит ее время
+        CompositeDisposable cancelled = new CompositeDisposable();
+        CompletableFuture.delayedExecutor(delay, unit).execute(() -> {
+            if (!cancelled.isDisposed() && !isDisposed()) {
+                execute(task);
+            }
+        });
+        return cancelled;
+    }
+
+    /**
+     * Выполняет task через initialDelay и дальше каждые period, как {@link #execute(Runnable)}.
+     *
+     * @return отмена только этого повторения; dispose всего worker тоже его останавливает
+     */
+    default Disposable schedulePeriodically(Runnable task, long initialDelay, long period, TimeUnit unit) {
+        if (period <= 0) {
+            throw new IllegalArgumentException("Period must be positive");
+        }
+        CompositeDisposable cancelled = new CompositeDisposable();
+        long periodNanos = unit.toNanos(period);
+        long firstRun = System.nanoTime() + unit.toNanos(initialDelay);
+
+        // Фиксированная частота: n-й запуск считается от первого, а не от конца предыдущего
+        class Tick implements Runnable {
+            private long runs;
+
+            void scheduleNext() {
+                long delay = firstRun + runs * periodNanos - System.nanoTime();
+                CompletableFuture.delayedExecutor(Math.max(0, delay), TimeUnit.NANOSECONDS).execute(this);
+            }
+
+            @Override
+            public void run() {
+                if (cancelled.isDisposed() || isDisposed()) {
+                    return;
+                }
+                execute(task);
+                runs++;
+                scheduleNext();
+            }
+        }
+        new Tick().scheduleNext();
+        return cancelled;
+    }
 }
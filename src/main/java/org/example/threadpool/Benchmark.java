@@ -3,97 +3,73 @@ package org.example.threadpool;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.concurrent.*;
-import java.util.concurrent.atomic.AtomicInteger;
-
+import java.util.function.Supplier;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Сравнение пулов под нагрузкой с открытым циклом ({@link LoadGenerator}): одинаковая частота запросов
+ * для всех пулов и задержки p50..p99.99 с поправкой на coordinated omission.
+ */
 public class Benchmark {
-    private static final int BENCHMARK_ITERATIONS = 10;
-    private static final int TASKS_PER_ITERATION = 100;
-    private static final int CORE_POOL_SIZE = 2;
-    private static final int MAX_POOL_SIZE = 8;
-    private static final int QUEUE_SIZE = 100;
+    private static final int POOL_SIZE = 4;
+    private static final int QUEUE_SIZE = 1024;
+    private static final int RATE_PER_SECOND = 2_000;
+    private static final long CPU_SERVICE_MICROS = 100;
+    private static final long BLOCKING_SERVICE_MICROS = 1_000;
 
     public static void run() throws Exception {
-        List<BenchmarkResult> results = new ArrayList<>();
-        for (int i = 0; i < BENCHMARK_ITERATIONS; i++) {
-            results.add(runBenchmark());
+        // Иначе меряем журнал событий, а не пул
+        Logger.getLogger("org.example.threadpool").setLevel(Level.OFF);
+
+        List<LoadReport> reports = new ArrayList<>();
+        for (LoadProfile profile : LoadProfile.values()) {
+            LoadGenerator generator = LoadGenerator.builder()
+                    .rate(RATE_PER_SECOND)
+                    .profile(profile)
+                    .serviceTime(profile == LoadProfile.BLOCKING ? BLOCKING_SERVICE_MICROS : CPU_SERVICE_MICROS,
+                            TimeUnit.MICROSECONDS)
+                    .warmup(1, TimeUnit.SECONDS)
+                    .duration(5, TimeUnit.SECONDS)
+                    .build();
+
+            reports.add(runOn("CustomThreadPool", generator, () -> CustomThreadPool.builder()
+                    .corePoolSize(POOL_SIZE)
+                    .maxPoolSize(POOL_SIZE)
+                    .queueSize(QUEUE_SIZE)
+                    .build()));
+            reports.add(runOn("CustomThreadPool/MPSC", generator, () -> CustomThreadPool.builder()
+                    .corePoolSize(POOL_SIZE)
+                    .maxPoolSize(POOL_SIZE)
+                    .queueSize(QUEUE_SIZE)
+                    .queueType(QueueType.MPSC_RING)
+                    .build()));
+            reports.add(runOn("ThreadPoolExecutor", generator, () -> new ExecutorServiceAdapter(new ThreadPoolExecutor(
+                    POOL_SIZE,
+                    POOL_SIZE,
+                    5,
+                    TimeUnit.SECONDS,
+                    new ArrayBlockingQueue<>(QUEUE_SIZE * POOL_SIZE)
+            ))));
         }
 
-        printResults(results);
-    }
-
-    private static BenchmarkResult runBenchmark() throws Exception {
-        // Test CustomThreadPool
-        CustomThreadPool customPool = new CustomThreadPool(
-                CORE_POOL_SIZE,
-                MAX_POOL_SIZE,
-                CORE_POOL_SIZE,
-                5,
-                TimeUnit.SECONDS,
-                QUEUE_SIZE
-        );
-
-        // Test ThreadPoolExecutor
-        ThreadPoolExecutor standardPool = new ThreadPoolExecutor(
-                CORE_POOL_SIZE,
-                MAX_POOL_SIZE,
-                5,
-                TimeUnit.SECONDS,
-                new ArrayBlockingQueue<>(QUEUE_SIZE)
-        );
-
-        long customStart = System.nanoTime();
-        runTasks(customPool);
-        long customTime = System.nanoTime() - customStart;
-
-        long standardStart = System.nanoTime();
-        runTasks(standardPool);
-        long standardTime = System.nanoTime() - standardStart;
-
-        customPool.shutdown();
-        standardPool.shutdown();
-
-        return new BenchmarkResult(customTime, standardTime);
+        printResults(reports);
     }
 
-    private static void runTasks(Executor pool) throws Exception {
-        CountDownLatch latch = new CountDownLatch(TASKS_PER_ITERATION);
-        AtomicInteger completedTasks = new AtomicInteger(0);
-
-        for (int i = 0; i < TASKS_PER_ITERATION; i++) {
-            pool.execute(() -> {
-                try {
-                    Thread.sleep(100);
-                    completedTasks.incrementAndGet();
-                } catch (InterruptedException e) {
-                    Thread.currentThread().interrupt();
-                } finally {
-                    latch.countDown();
-                }
-            });
+    private static LoadReport runOn(String name, LoadGenerator generator, Supplier<CustomExecutor> factory) {
+        CustomExecutor executor = factory.get();
+        try {
+            return generator.run(name, executor);
+        } finally {
+            executor.shutdown();
         }
-
-        latch.await();
     }
 
-    private static void printResults(List<BenchmarkResult> results) {
-        double avgCustomTime = results.stream()
-                .mapToLong(r -> r.customTime)
-                .average()
-                .orElse(0) / 1_000_000.0;
-
-        double avgStandardTime = results.stream()
-                .mapToLong(r -> r.standardTime)
-                .average()
-                .orElse(0) / 1_000_000.0;
-
-        System.out.println("\nBenchmark Results:");
-        System.out.println("------------------");
-        System.out.printf("Average CustomThreadPool time: %.2f ms\n", avgCustomTime);
-        System.out.printf("Average ThreadPoolExecutor time: %.2f ms\n", avgStandardTime);
-        System.out.printf("Performance difference: %.2f%%\n",
-                ((avgCustomTime - avgStandardTime) / avgStandardTime) * 100);
-    }
-
-    private record BenchmarkResult(long customTime, long standardTime) {
+    private static void printResults(List<LoadReport> reports) {
+        System.out.println("\nBenchmark Results (open loop, corrected latency):");
+        System.out.println(LoadReport.header());
+        for (LoadReport report : reports) {
+            System.out.println(report.formatRow());
+        }
     }
-} 
\ No newline at end of file
+}
@@ -1,13 +1,110 @@
 package org.example.threadpool;
 
-import java.util.concurrent.Callable;
-import java.util.concurrent.Executor;
-import java.util.concurrent.Future;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.*;
 
 public interface CustomExecutor extends Executor {
     <T> Future<T> submit(Callable<T> task);
 
+    /**
+     * Неблокирующий вариант submit: результат приходит в CompletableFuture, а его асинхронные
+     * продолжения без явного executor тоже выполняются здесь, никакой поток не ждет на get().
+     *
+     * @throws RejectedExecutionException если задачу не удалось принять
+     */
+    default <T> CompletableFuture<T> submitAsync(Callable<T> task) {
+        ExecutorFuture<T> future = new ExecutorFuture<>(this);
+        execute(new ExecutorFuture.Completion<>(future, task));
+        return future;
+    }
+
     void shutdown();
 
     void shutdownNow();
-} 
\ No newline at end of file
+
+    /**
+     * Отправляет пачку задач. Реализации могут раскладывать ее по очередям целиком,
+     * без накладных расходов execute на каждую задачу.
+     * Если часть задач отклонена, уже принятые задачи продолжают выполняться.
+     */
+    default void executeAll(Collection<? extends Runnable> tasks) {
+        for (Runnable task : tasks) {
+            execute(task);
+        }
+    }
+
+    /**
+     * Выполняет все задачи и ждет их завершения.
+     *
+     * @return завершенные Future в порядке задач
+     */
+    default <T> List<Future<T>> invokeAll(Collection<? extends Callable<T>> tasks) throws InterruptedException {
+        List<FutureTask<T>> futures = new ArrayList<>(tasks.size());
+        for (Callable<T> task : tasks) {
+            futures.add(new FutureTask<>(task));
+        }
+
+        try {
+            executeAll(futures);
+            for (FutureTask<T> future : futures) {
+                try {
+                    future.get();
+                } catch (ExecutionException | CancellationException ignored) {
+                    // Результат или ошибку заберет вызывающий из Future
+                }
+            }
+        } catch (InterruptedException | RuntimeException e) {
+            for (FutureTask<T> future : futures) {
+                future.cancel(true);
+            }
+            throw e;
+        }
+
+        return new ArrayList<>(futures);
+    }
+
+    /**
+     * Выполняет задачи и возвращает результат первой успешно завершившейся, остальные отменяются.
+     *
+     * @throws ExecutionException если ни одна задача не завершилась успешно
+     */
+    default <T> T invokeAny(Collection<? extends Callable<T>> tasks) throws InterruptedException, ExecutionException {
+        if (tasks.isEmpty()) {
+            throw new IllegalArgumentException("No tasks to invoke");
+        }
+
+        BlockingQueue<Future<T>> completed = new LinkedBlockingQueue<>();
+        List<FutureTask<T>> futures = new ArrayList<>(tasks.size());
+        for (Callable<T> task : tasks) {
+            futures.add(new FutureTask<>(task) {
+                @Override
+                protected void done() {
+                    completed.add(this);
+                }
+            });
+        }
+
+        try {
+            executeAll(futures);
+
+            ExecutionException last = null;
+            for (int i = 0; i < futures.size(); i++) {
+                Future<T> future = completed.take();
+                try {
+                    return future.get();
+                } catch (ExecutionException e) {
+                    last = e;
+                } catch (CancellationException e) {
+                    last = new ExecutionException(e);
+                }
+            }
+            throw last;
+        } finally {
+            for (FutureTask<T> future : futures) {
+                future.cancel(true);
+            }
+        }
+    }
+}
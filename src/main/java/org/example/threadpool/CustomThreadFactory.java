@@ -2,21 +2,46 @@ package org.example.threadpool;
 
 import java.util.concurrent.ThreadFactory;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Level;
 import java.util.logging.Logger;
 
 public class CustomThreadFactory implements ThreadFactory {
     private static final String namePrefix = "CustomPool-worker-";
+    private static final String virtualNamePrefix = "CustomPool-virtual-";
     private static final String runPrefix = "[ThreadFactory] Creating new thread:";
 
     private static final Logger logger = Logger.getLogger(CustomThreadFactory.class.getName());
     private final AtomicInteger threadNumber = new AtomicInteger(1);
+    private final boolean virtual;
+
+    public CustomThreadFactory() {
+        this(false);
+    }
+
+    /**
+     * @param virtual создавать виртуальные потоки вместо платформенных
+     */
+    public CustomThreadFactory(boolean virtual) {
+        this.virtual = virtual;
+    }
 
     @Override
     public Thread newThread(Runnable r) {
+        if (virtual) {
+            // Виртуальный поток создается на каждую задачу, поэтому лог только на FINE
+            Thread instance = Thread.ofVirtual()
+                    .name(virtualNamePrefix + threadNumber.getAndIncrement())
+                    .unstarted(r);
+            if (logger.isLoggable(Level.FINE)) {
+                logger.fine(String.format("%s %s", runPrefix, instance.getName()));
+            }
+            return instance;
+        }
+
         Thread instance = new Thread(r, namePrefix + threadNumber.getAndIncrement());
 
         logger.info(String.format("%s %s", runPrefix, instance.getName()));
 
         return instance;
     }
-} 
\ No newline at end of file
+}
@@ -1,14 +1,25 @@
 package org.example.threadpool;
 
+import javax.management.JMException;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
 import java.util.concurrent.*;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.Level;
 import java.util.logging.Logger;
 
-public class CustomThreadPool implements CustomExecutor {
+public final class CustomThreadPool implements CustomExecutor {
     private static final Logger logger = Logger.getLogger(CustomThreadPool.class.getName());
+    private static final int TIMER_WHEEL_SIZE = 512;
 
     private final int corePoolSize;
     private final int maxPoolSize;
@@ -16,13 +27,36 @@ public class CustomThreadPool implements CustomExecutor {
     private final long keepAliveTime;
     private final TimeUnit timeUnit;
     private final int queueSize;
+    private final boolean workStealing;
+    private final QueueType queueType;
+    private final TaskPlacementStrategy placementStrategy;
+    private final boolean virtualThreads;
+    private final int maxConcurrency;
+    private final long priorityAgingNanos;
+    private final WaitStrategy waitStrategy;
 
     private final List<CustomWorker> workers;
-    private final List<BlockingQueue<Runnable>> queues;
+    private volatile QueueSet queueSet;
+    private final BlockingQueue<Runnable> overflowQueue;
+    private final RejectionPolicy rejectionPolicy;
     private final AtomicInteger activeThreads;
-    private final AtomicInteger nextQueueIndex;
     private final AtomicBoolean isShutdown;
     private final CustomThreadFactory threadFactory;
+    private final LongAdder stolenTasks;
+    private final PoolEventRecorder events;
+    private final PoolMetrics metrics;
+    // Регистрирует Builder#build, когда пул уже создан
+    private volatile ObjectName mbeanName;
+    private final Semaphore concurrencyLimit;
+    private final AtomicInteger admittedTasks;
+    private final Set<Thread> virtualWorkers;
+    private final Set<CustomWorker> retiringWorkers;
+    private final PoolSizeController sizeController;
+    private final long timerTickNanos;
+    // Колесо таймеров с собственным потоком создается при первом schedule
+    private volatile TimerWheel timerWheel;
+    // Полосы ключей создаются при первом execute(key, command)
+    private volatile KeyedLanes keyedLanes;
 
     public CustomThreadPool(
             int corePoolSize,
@@ -32,97 +66,692 @@ public class CustomThreadPool implements CustomExecutor {
             TimeUnit timeUnit,
             int queueSize
     ) {
+        this(builder()
+                .corePoolSize(corePoolSize)
+                .maxPoolSize(maxPoolSize)
+                .minSpareThreads(minSpareThreads)
+                .keepAliveTime(keepAliveTime, timeUnit)
+                .queueSize(queueSize));
+    }
+
+    private CustomThreadPool(Builder builder) {
         //logger.setLevel(Level.OFF);
 
-        this.corePoolSize = corePoolSize;
-        this.maxPoolSize = maxPoolSize;
-        this.minSpareThreads = minSpareThreads;
-        this.keepAliveTime = keepAliveTime;
-        this.timeUnit = timeUnit;
-        this.queueSize = queueSize;
+        this.corePoolSize = builder.corePoolSize;
+        this.maxPoolSize = builder.maxPoolSize;
+        this.minSpareThreads = builder.minSpareThreads;
+        this.keepAliveTime = builder.keepAliveTime;
+        this.timeUnit = builder.timeUnit;
+        this.queueSize = builder.queueSize;
+        this.workStealing = builder.workStealing;
+        this.queueType = builder.queueType;
+        // Round-robin хранит счетчик, поэтому каждому пулу свой экземпляр
+        this.placementStrategy = builder.placementStrategy != null
+                ? builder.placementStrategy
+                : TaskPlacementStrategy.roundRobin();
+        this.virtualThreads = builder.virtualThreads;
+        this.maxConcurrency = builder.maxConcurrency;
+        this.priorityAgingNanos = builder.priorityAgingNanos;
+        this.waitStrategy = builder.waitStrategy;
+        this.timerTickNanos = builder.timerTickNanos;
 
-        this.workers = new ArrayList<>();
-        this.queues = new ArrayList<>();
+        // Воркеры читают списки друг друга при краже задач, поэтому нужны потокобезопасные списки
+        this.workers = new CopyOnWriteArrayList<>();
+        this.queueSet = QueueSet.EMPTY;
+        this.overflowQueue = builder.overflowQueueSize > 0
+                ? new LinkedBlockingQueue<>(builder.overflowQueueSize)
+                : null;
+        this.rejectionPolicy = builder.rejectionPolicy != null
+                ? builder.rejectionPolicy
+                : RejectionPolicy.retryOtherQueues();
         this.activeThreads = new AtomicInteger(0);
-        this.nextQueueIndex = new AtomicInteger(0);
         this.isShutdown = new AtomicBoolean(false);
-        this.threadFactory = new CustomThreadFactory();
+        this.threadFactory = new CustomThreadFactory(virtualThreads);
+        this.stolenTasks = new LongAdder();
+        this.events = new PoolEventRecorder(logger, builder.eventBufferSize, builder.eventSampleRates);
+        this.metrics = new PoolMetrics();
+        this.concurrencyLimit = maxConcurrency > 0 ? new Semaphore(maxConcurrency) : null;
+        this.admittedTasks = new AtomicInteger(0);
+        this.virtualWorkers = ConcurrentHashMap.newKeySet();
+        this.retiringWorkers = ConcurrentHashMap.newKeySet();
+        this.sizeController = builder.targetQueueWaitNanos > 0 && !virtualThreads
+                ? new PoolSizeController(this, metrics, builder.targetQueueWaitNanos)
+                : null;
 
-        for (int i = 0; i < corePoolSize; i++) {
-            addWorker();
+        // Виртуальным потокам не нужны ни постоянные воркеры, ни их очереди
+        if (!virtualThreads) {
+            for (int i = 0; i < corePoolSize; i++) {
+                addWorker();
+            }
+        }
+        if (sizeController != null) {
+            sizeController.start();
         }
     }
 
-    private synchronized void addWorker() {
-        if (workers.size() >= maxPoolSize) {
-            return;
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    synchronized boolean addWorker() {
+        if (workers.size() >= maxPoolSize || isShutdown.get()) {
+            return false;
         }
 
-        BlockingQueue<Runnable> queue = new ArrayBlockingQueue<>(queueSize);
+        BlockingQueue<Runnable> queue = newQueue();
 
-        queues.add(queue);
+        queueSet = queueSet.with(queue);
 
         CustomWorker worker = new CustomWorker(
                 queue,
                 this.threadFactory,
-                workers,
+                this,
                 logger,
-                this.corePoolSize,
+                this.events,
+                this.metrics,
                 this.activeThreads,
                 this.keepAliveTime,
-                this.timeUnit
+                this.timeUnit,
+                workStealing,
+                this.overflowQueue,
+                this.waitStrategy,
+                this.stolenTasks
         );
 
         workers.add(worker);
+        metrics.workerCreated();
         worker.thread.start();
 
         logger.info(String.format("[Pool] Created new worker: %s", worker.thread.getName()));
+        return true;
+    }
+
+    /**
+     * Вызывается воркером, у которого истек keepAliveTime. При адаптивном размере
+     * пул сжимает только контроллер.
+     */
+    synchronized boolean tryRetireIdle(CustomWorker worker) {
+        if (sizeController != null || isShutdown.get() || workers.size() <= corePoolSize) {
+            return false;
+        }
+        detach(worker);
+        return true;
+    }
+
+    /**
+     * Выводит из пула воркера с самой короткой очередью.
+     */
+    synchronized boolean retireOne() {
+        if (isShutdown.get() || workers.size() <= corePoolSize) {
+            return false;
+        }
+
+        CustomWorker candidate = null;
+        for (CustomWorker worker : workers) {
+            if (candidate == null || worker.queue.size() < candidate.queue.size()) {
+                candidate = worker;
+            }
+        }
+        detach(candidate);
+        return true;
+    }
+
+    /**
+     * Сначала очередь перестает получать новые задачи, потом воркер дорабатывает то, что в ней осталось.
+     * В retiringWorkers воркер попадает раньше, чем очередь пропадает из снимка: пока он там,
+     * производители не трогают его очередь ({@link #checkRetired}).
+     */
+    private void detach(CustomWorker worker) {
+        workers.remove(worker);
+        retiringWorkers.add(worker);
+        queueSet = queueSet.without(worker.queue);
+        worker.retire();
+    }
+
+    /**
+     * Вызывается в потоке воркера при его завершении. Если воркер упал, а не был выведен
+     * из пула, на его место встает новый. Оставшиеся в очереди задачи переезжают к другим воркерам.
+     */
+    void onWorkerExit(CustomWorker worker) {
+        synchronized (this) {
+            boolean unexpected = workers.remove(worker);
+            if (unexpected) {
+                queueSet = queueSet.without(worker.queue);
+                if (!isShutdown.get()) {
+                    addWorker();
+                }
+            }
+        }
+
+        List<Runnable> leftovers = new ArrayList<>();
+        synchronized (worker.queue) {
+            // Дальше задачи, опоздавшие в эту очередь, переносят сами производители
+            retiringWorkers.remove(worker);
+            if (!isShutdown.get()) {
+                worker.queue.drainTo(leftovers);
+            }
+        }
+        relocate(leftovers, worker.thread.getName());
+    }
+
+    /**
+     * Производитель мог взять снимок очередей до того, как воркер ушел, и положить задачу
+     * уже после его последнего обхода - тогда ее никто не выполнит. Поэтому после вставки
+     * производитель проверяет, жива ли очередь, и если воркер уже закончил, разбирает ее сам.
+     * Быстрый путь - одно сравнение снимков.
+     */
+    private void checkRetired(QueueSet set, BlockingQueue<Runnable> queue) {
+        QueueSet current = queueSet;
+        if (current == set || current.contains(queue)) {
+            return;
+        }
+
+        List<Runnable> leftovers = new ArrayList<>();
+        synchronized (queue) {
+            for (CustomWorker worker : retiringWorkers) {
+                if (worker.queue == queue) {
+                    // Воркер еще дорабатывает очередь и заберет задачу сам
+                    return;
+                }
+            }
+            queue.drainTo(leftovers);
+        }
+        relocate(leftovers, "retired queue");
+    }
+
+    private void relocate(List<Runnable> tasks, String from) {
+        for (Runnable task : tasks) {
+            // Задачи уже приняты пулом, политика отказа к ним не применяется
+            if (place((PoolTask) task)) {
+                continue;
+            }
+            if (KeyedLanes.isDrainer(((PoolTask) task).task)) {
+                // Без разборщика полоса ключа не освободится никогда, разбираем ее здесь же
+                task.run();
+            } else {
+                logger.warning(String.format("[Pool] Task %s lost while retiring %s", task, from));
+            }
+        }
+    }
+
+    private BlockingQueue<Runnable> newQueue() {
+        // Для кражи нужен доступ к хвосту очереди, ArrayBlockingQueue его не дает.
+        // DEADLINE-очередь воры берут с головы, ее порядок важнее
+        if (workStealing && queueType != QueueType.DEADLINE) {
+            return new LinkedBlockingDeque<>(queueSize);
+        }
+
+        return switch (queueType) {
+            case ARRAY_BLOCKING -> new ArrayBlockingQueue<>(queueSize);
+            case MPSC_RING -> new MpscRingBuffer<>(queueSize);
+            case DEADLINE -> new DeadlineQueue(queueSize);
+        };
     }
 
     @Override
     public void execute(Runnable command) {
+        execute(command, TaskPriority.NORMAL);
+    }
+
+    /**
+     * Приоритет учитывают только очереди {@link QueueType#DEADLINE}, остальные выполняют задачи по FIFO.
+     */
+    public void execute(Runnable command, TaskPriority priority) {
+        long now = System.nanoTime();
+        executeBefore(command, now, now + priority.ordinal() * priorityAgingNanos);
+    }
+
+    /**
+     * Задачи с одинаковым ключом выполняются по одной и в порядке вызова, с разными - параллельно.
+     * Ключ сравнивается по equals/hashCode. Исключение задачи логируется и не мешает следующим задачам ключа.
+     * Если пул перегружен и отказал, первая задача пустой полосы выполняется в вызывающем потоке.
+     */
+    public void execute(Object key, Runnable command) {
+        if (isShutdown.get()) {
+            throw new RejectedExecutionException("ThreadPool is shutdown");
+        }
+        keyedLanes().execute(key, command);
+    }
+
+    private KeyedLanes keyedLanes() {
+        KeyedLanes lanes = keyedLanes;
+        if (lanes == null) {
+            synchronized (this) {
+                lanes = keyedLanes;
+                if (lanes == null) {
+                    lanes = new KeyedLanes(this, isShutdown::get);
+                    keyedLanes = lanes;
+                }
+            }
+        }
+        return lanes;
+    }
+
+    /**
+     * Задача, которую желательно начать не позже чем через timeout. В очереди {@link QueueType#DEADLINE}
+     * она обгонит задачи с более поздним (в том числе виртуальным, от приоритета) дедлайном.
+     * Просроченная задача не отменяется, а просто выполняется первой.
+     */
+    public void executeWithDeadline(Runnable command, long timeout, TimeUnit unit) {
+        long now = System.nanoTime();
+        executeBefore(command, now, now + unit.toNanos(timeout));
+    }
+
+    private void executeBefore(Runnable command, long enqueuedAt, long deadline) {
+        if (isShutdown.get()) {
+            throw new RejectedExecutionException("ThreadPool is shutdown");
+        }
+
+        if (virtualThreads) {
+            executeVirtual(command);
+            return;
+        }
+
+        ensureSpareWorkers();
+        enqueue(new PoolTask(command, enqueuedAt, deadline));
+    }
+
+    /**
+     * Пачка раскладывается не более чем на число очередей частей: одно решение о размещении
+     * и одна массовая вставка на часть. Что не влезло в выбранную очередь, идет обычным путем execute.
+     */
+    @Override
+    public void executeAll(Collection<? extends Runnable> tasks) {
+        executeAll(tasks, TaskPriority.NORMAL);
+    }
+
+    /**
+     * Пачка с общим приоритетом: дедлайн каждой задачи считается так же, как в {@link #execute(Runnable, TaskPriority)}.
+     */
+    public void executeAll(Collection<? extends Runnable> tasks, TaskPriority priority) {
         if (isShutdown.get()) {
             throw new RejectedExecutionException("ThreadPool is shutdown");
         }
+        if (tasks.isEmpty()) {
+            return;
+        }
 
-        // Подсыпем воркеров по мере надобности
-        if (activeThreads.get() < minSpareThreads && workers.size() < maxPoolSize) {
+        if (virtualThreads) {
+            for (Runnable task : tasks) {
+                executeVirtual(task);
+            }
+            return;
+        }
+
+        ensureSpareWorkers();
+
+        long enqueuedAt = System.nanoTime();
+        long deadline = enqueuedAt + priority.ordinal() * priorityAgingNanos;
+        PoolTask[] batch = new PoolTask[tasks.size()];
+        int size = 0;
+        for (Runnable task : tasks) {
+            batch[size++] = new PoolTask(Objects.requireNonNull(task), enqueuedAt, deadline);
+        }
+
+        QueueSet set = queueSet;
+        int chunks = Math.min(set.size(), size);
+        int from = 0;
+        for (int chunk = 0; chunk < chunks; chunk++) {
+            int to = from + (size - from) / (chunks - chunk);
+            int queueIndex = placementStrategy.selectQueue(set.size(), set);
+            int accepted = offerBatch(set.get(queueIndex), batch, from, to);
+            if (accepted > 0) {
+                checkRetired(set, set.get(queueIndex));
+            }
+
+            for (int i = from; i < from + accepted; i++) {
+                events.record(PoolEventRecorder.Event.TASK_ACCEPTED, queueIndex, batch[i].task);
+            }
+            for (int i = from + accepted; i < to; i++) {
+                enqueue(batch[i]);
+            }
+            from = to;
+        }
+    }
+
+    private void ensureSpareWorkers() {
+        // Подсыпем воркеров по мере надобности; с контроллером размера пул растет только в фоне
+        if (sizeController == null && activeThreads.get() < minSpareThreads && workers.size() < maxPoolSize) {
             addWorker();
         }
+    }
+
+    /**
+     * Кладет задачу в выбранную стратегией очередь без ожидания. Если там нет места,
+     * решает политика отказа; производитель ждет, только если она сама этого хочет.
+     */
+    private void enqueue(PoolTask task) {
+        QueueSet set = queueSet;
+        if (set.size() == 0) {
+            throw new RejectedExecutionException("ThreadPool has no workers");
+        }
+        int queueIndex = placementStrategy.selectQueue(set.size(), set);
+
+        if (set.get(queueIndex).offer(task)) {
+            events.record(PoolEventRecorder.Event.TASK_ACCEPTED, queueIndex, task.task);
+            checkRetired(set, set.get(queueIndex));
+            return;
+        }
 
-        // Пока раунд-робин
-        // подумать о реализации стратегии сложнее
-        int queueIndex = nextQueueIndex.getAndIncrement() % queues.size();
-        BlockingQueue<Runnable> queue = queues.get(queueIndex);
+        if (!rejectionPolicy.handle(task, queueIndex, new PoolRejectionContext(set, task))) {
+            metrics.taskRejected();
+            events.record(PoolEventRecorder.Event.TASK_REJECTED, queueIndex, task.task);
+            throw new RejectedExecutionException("Queue is full");
+        }
+    }
 
+    /**
+     * Служебная задача пула (разборщик полосы ключа, сработавший таймер): ставится в любую очередь
+     * со свободным местом в обход политики отказа, которая могла бы ее молча выбросить, выполнить
+     * в вызывающем потоке или заблокировать его. Если места нет нигде - RejectedExecutionException,
+     * и вызывающий сам решает, что делать с задачей.
+     */
+    void dispatch(Runnable command) {
+        if (isShutdown.get()) {
+            throw new RejectedExecutionException("ThreadPool is shutdown");
+        }
+        if (virtualThreads) {
+            executeVirtual(command);
+            return;
+        }
+
+        long now = System.nanoTime();
+        if (!place(new PoolTask(command, now, now + TaskPriority.NORMAL.ordinal() * priorityAgingNanos))) {
+            throw new RejectedExecutionException("All queues are full");
+        }
+    }
+
+    /**
+     * Первая очередь со свободным местом, начиная с выбранной стратегией, затем очередь переполнения.
+     * Политику отказа не вызывает.
+     */
+    private boolean place(PoolTask task) {
+        QueueSet set = queueSet;
+        int count = set.size();
+        if (count > 0) {
+            int start = placementStrategy.selectQueue(count, set);
+            for (int i = 0; i < count; i++) {
+                int queueIndex = (start + i) % count;
+                if (set.get(queueIndex).offer(task)) {
+                    events.record(PoolEventRecorder.Event.TASK_ACCEPTED, queueIndex, task.task);
+                    checkRetired(set, set.get(queueIndex));
+                    return true;
+                }
+            }
+        }
+        return overflowQueue != null && overflowQueue.offer(task);
+    }
+
+    /**
+     * Контекст одного отказа. Держит снимок очередей, по которому выбиралась полная очередь,
+     * чтобы индексы политики не съехали, если воркер за это время появился или ушел,
+     * и саму задачу в обертке PoolTask, которую ждут воркеры.
+     */
+    private class PoolRejectionContext implements RejectionPolicy.RejectionContext {
+        private final QueueSet set;
+        private final PoolTask task;
+
+        PoolRejectionContext(QueueSet set, PoolTask task) {
+            this.set = set;
+            this.task = task;
+        }
+
+        @Override
+        public int queueCount() {
+            return set.size();
+        }
+
+        @Override
+        public boolean offer(int queueIndex) {
+            if (queueIndex < set.size() && set.get(queueIndex).offer(task)) {
+                checkRetired(set, set.get(queueIndex));
+                return true;
+            }
+            return false;
+        }
+
+        @Override
+        public boolean offer(int queueIndex, long timeout, TimeUnit unit) {
+            try {
+                if (queueIndex < set.size() && set.get(queueIndex).offer(task, timeout, unit)) {
+                    checkRetired(set, set.get(queueIndex));
+                    return true;
+                }
+                return false;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return false;
+            }
+        }
+
+        @Override
+        public boolean discardOldest(int queueIndex) {
+            // Из MPSC-кольца может читать только его воркер
+            if (queueIndex >= set.size() || set.get(queueIndex) instanceof MpscRingBuffer) {
+                return false;
+            }
+            BlockingQueue<Runnable> queue = set.get(queueIndex);
+            // Голова DEADLINE-очереди - самая срочная задача, выбрасывать надо наименее срочную
+            Runnable oldest = queue instanceof DeadlineQueue deadlineQueue ? deadlineQueue.pollLatest() : queue.poll();
+            if (oldest == null) {
+                return false;
+            }
+            if (KeyedLanes.isDrainer(((PoolTask) oldest).task)) {
+                // За разборщиком стоят задачи его ключа: выбросить его - потерять их все.
+                // Возвращаем его в очередь, а если место уже заняли - разбираем полосу здесь же
+                if (queue.offer(oldest)) {
+                    checkRetired(set, queue);
+                } else {
+                    oldest.run();
+                }
+                return false;
+            }
+            metrics.taskRejected();
+            events.record(PoolEventRecorder.Event.TASK_REJECTED, queueIndex, ((PoolTask) oldest).task);
+            return true;
+        }
+
+        @Override
+        public boolean offerOverflow() {
+            return overflowQueue != null && overflowQueue.offer(task);
+        }
+    }
+
+    private static int offerBatch(BlockingQueue<Runnable> queue, PoolTask[] batch, int from, int to) {
+        if (queue instanceof MpscRingBuffer<Runnable> ring) {
+            return ring.offerAll(batch, from, to);
+        }
+
+        int accepted = 0;
+        while (from + accepted < to && queue.offer(batch[from + accepted])) {
+            accepted++;
+        }
+        return accepted;
+    }
+
+    /**
+     * Поток на задачу. Очередью служит ожидание разрешения семафора: задачи сверх maxConcurrency
+     * паркуют свой виртуальный поток, а не держат платформенный. Без лимита очереди нет вовсе.
+     */
+    private void executeVirtual(Runnable command) {
+        if (concurrencyLimit != null && admittedTasks.incrementAndGet() > maxConcurrency + queueSize) {
+            admittedTasks.decrementAndGet();
+            metrics.taskRejected();
+            events.record(PoolEventRecorder.Event.TASK_REJECTED, -1, command);
+            throw new RejectedExecutionException("Concurrency limit and queue are full");
+        }
+
+        long enqueuedAt = System.nanoTime();
+        Thread thread = threadFactory.newThread(() -> runVirtual(command, enqueuedAt));
+        // Регистрируем до start: иначе shutdownNow и getPoolSize не видят поток, который еще не запустился
+        virtualWorkers.add(thread);
+        events.record(PoolEventRecorder.Event.TASK_ACCEPTED, -1, command);
+        thread.start();
+    }
+
+    private void runVirtual(Runnable command, long enqueuedAt) {
         try {
-            if (!queue.offer(command, 100, TimeUnit.MILLISECONDS)) {
-                logger.warning(String.format("[Rejected] Task %s was rejected due to overload!", command));
-                throw new RejectedExecutionException("Queue is full");
+            if (concurrencyLimit != null) {
+                try {
+                    concurrencyLimit.acquire();
+                } catch (InterruptedException e) {
+                    // Пул остановили, пока задача ждала своей очереди
+                    return;
+                }
+            }
+
+            long startedAt = System.nanoTime();
+            boolean failed = true;
+            activeThreads.incrementAndGet();
+            try {
+                events.record(PoolEventRecorder.Event.TASK_STARTED, -1, command);
+                command.run();
+                failed = false;
+            } finally {
+                activeThreads.decrementAndGet();
+                metrics.taskCompleted(startedAt - enqueuedAt, System.nanoTime() - startedAt, failed);
+                if (concurrencyLimit != null) {
+                    concurrencyLimit.release();
+                }
+            }
+        } finally {
+            if (concurrencyLimit != null) {
+                admittedTasks.decrementAndGet();
             }
-            logger.info(String.format("[Pool] Task accepted into queue #%d: %s", queueIndex, command));
-        } catch (InterruptedException e) {
-            Thread.currentThread().interrupt();
-            throw new RejectedExecutionException("Waiting for queue free space", e);
+            virtualWorkers.remove(Thread.currentThread());
         }
     }
 
     @Override
     public <T> Future<T> submit(Callable<T> task) {
+        return submit(task, TaskPriority.NORMAL);
+    }
+
+    public <T> Future<T> submit(Callable<T> task, TaskPriority priority) {
         FutureTask<T> futureTask = new FutureTask<>(task);
-        execute(futureTask);
+        execute(futureTask, priority);
         return futureTask;
     }
 
+    public <T> Future<T> submitWithDeadline(Callable<T> task, long timeout, TimeUnit unit) {
+        FutureTask<T> futureTask = new FutureTask<>(task);
+        executeWithDeadline(futureTask, timeout, unit);
+        return futureTask;
+    }
+
+    /**
+     * Выполнить задачу в пуле через delay. Таймер живет в колесе ({@link TimerWheel}),
+     * точность - один тик ({@link Builder#timerTick}).
+     */
+    public ScheduledFuture<?> schedule(Runnable command, long delay, TimeUnit unit) {
+        return timerWheel().schedule(Objects.requireNonNull(command), delay, unit);
+    }
+
+    public <V> ScheduledFuture<V> schedule(Callable<V> task, long delay, TimeUnit unit) {
+        return timerWheel().schedule(Objects.requireNonNull(task), delay, unit);
+    }
+
+    /**
+     * Запуски через каждые period от первого. Если запуск бросил исключение, повторы прекращаются,
+     * а если задача опоздала, пропущенные запуски догоняются подряд, как в ScheduledThreadPoolExecutor.
+     */
+    public ScheduledFuture<?> scheduleAtFixedRate(Runnable command, long initialDelay, long period, TimeUnit unit) {
+        return timerWheel().scheduleAtFixedRate(Objects.requireNonNull(command), initialDelay, period, unit);
+    }
+
+    private TimerWheel timerWheel() {
+        TimerWheel wheel = timerWheel;
+        if (wheel == null) {
+            synchronized (this) {
+                if (isShutdown.get()) {
+                    throw new RejectedExecutionException("ThreadPool is shutdown");
+                }
+                wheel = timerWheel;
+                if (wheel == null) {
+                    wheel = new TimerWheel(this::dispatch, timerTickNanos, TIMER_WHEEL_SIZE);
+                    timerWheel = wheel;
+                }
+            }
+        }
+        return wheel;
+    }
+
+    public PoolMetrics getMetrics() {
+        return metrics;
+    }
+
+    /**
+     * Число воркеров, а в режиме виртуальных потоков - число отправленных и еще не завершившихся потоков задач.
+     */
+    public int getPoolSize() {
+        return virtualThreads ? virtualWorkers.size() : workers.size();
+    }
+
+    int getCorePoolSize() {
+        return corePoolSize;
+    }
+
+    int getMaxPoolSize() {
+        return maxPoolSize;
+    }
+
+    public int getActiveThreads() {
+        return activeThreads.get();
+    }
+
+    /**
+     * Глубина очереди каждого воркера в порядке их создания.
+     */
+    public int[] getQueueDepths() {
+        QueueSet set = queueSet;
+        int[] depths = new int[set.size()];
+        for (int i = 0; i < depths.length; i++) {
+            depths[i] = set.depthOf(i);
+        }
+        return depths;
+    }
+
+    /**
+     * Задачи, ждущие в общей очереди переполнения.
+     */
+    public int getOverflowQueueDepth() {
+        return overflowQueue != null ? overflowQueue.size() : 0;
+    }
+
+    QueueSet queueSet() {
+        return queueSet;
+    }
+
+    /**
+     * Сколько задач простаивающие воркеры забрали из чужих очередей.
+     * Всегда 0, если пул собран без work-stealing.
+     */
+    public long getStolenTaskCount() {
+        return stolenTasks.sum();
+    }
+
+    /**
+     * Ключи, у которых сейчас есть невыполненные задачи execute(key, command).
+     */
+    public int getActiveKeyCount() {
+        KeyedLanes lanes = keyedLanes;
+        return lanes != null ? lanes.activeLaneCount() : 0;
+    }
+
+    /**
+     * Сколько диагностических событий отброшено из-за переполнения буфера журнала.
+     */
+    public long getDroppedEventCount() {
+        return events.droppedCount();
+    }
+
     @Override
     public void shutdown() {
         if (isShutdown.compareAndSet(false, true)) {
             logger.info("[Pool] Initiating shutdown...");
-            for (CustomWorker worker : workers) {
-                if (worker != null) {
-                    worker.shutdownNow();
-                }
-            }
+            stopWorkers();
+            events.close();
+            unregisterMBean();
         }
     }
 
@@ -130,11 +759,254 @@ public class CustomThreadPool implements CustomExecutor {
     public void shutdownNow() {
         if (isShutdown.compareAndSet(false, true)) {
             logger.info("[Pool] Initiating immediate shutdown...");
-            for (CustomWorker worker : workers) {
-                if (worker != null) {
-                    worker.shutdownNow();
-                }
+            stopWorkers();
+            for (Thread thread : virtualWorkers) {
+                thread.interrupt();
+            }
+            events.close();
+            unregisterMBean();
+        }
+    }
+
+    private void stopWorkers() {
+        if (sizeController != null) {
+            sizeController.stop();
+        }
+        synchronized (this) {
+            if (timerWheel != null) {
+                timerWheel.stop();
+            }
+        }
+        for (CustomWorker worker : workers) {
+            if (worker != null) {
+                worker.shutdownNow();
+            }
+        }
+        for (CustomWorker worker : retiringWorkers) {
+            worker.shutdownNow();
+        }
+    }
+
+    private void registerMBean(String name) {
+        if (name == null) {
+            return;
+        }
+        try {
+            ObjectName objectName = new ObjectName("org.example.threadpool:type=CustomThreadPool,name=" + ObjectName.quote(name));
+            ManagementFactory.getPlatformMBeanServer().registerMBean(new CustomThreadPoolMXBeanImpl(this), objectName);
+            mbeanName = objectName;
+        } catch (JMException e) {
+            logger.warning(String.format("[Pool] Failed to register MBean %s: %s", name, e));
+        }
+    }
+
+    private void unregisterMBean() {
+        if (mbeanName == null) {
+            return;
+        }
+        try {
+            ManagementFactory.getPlatformMBeanServer().unregisterMBean(mbeanName);
+        } catch (JMException e) {
+            logger.warning(String.format("[Pool] Failed to unregister MBean %s: %s", mbeanName, e));
+        }
+    }
+
+    public static class Builder {
+        private int corePoolSize = Runtime.getRuntime().availableProcessors();
+        private int maxPoolSize = corePoolSize;
+        private int minSpareThreads = 0;
+        private long keepAliveTime = 60;
+        private TimeUnit timeUnit = TimeUnit.SECONDS;
+        private int queueSize = 1024;
+        private boolean workStealing = false;
+        private QueueType queueType = QueueType.ARRAY_BLOCKING;
+        private TaskPlacementStrategy placementStrategy;
+        private int eventBufferSize = 8192;
+        private final Map<Level, Integer> eventSampleRates = new HashMap<>();
+        private String jmxName;
+        private boolean virtualThreads = false;
+        private int maxConcurrency = 0;
+        private long targetQueueWaitNanos = 0;
+        private RejectionPolicy rejectionPolicy;
+        private int overflowQueueSize = 0;
+        private long priorityAgingNanos = TimeUnit.MILLISECONDS.toNanos(10);
+        private long timerTickNanos = TimeUnit.MILLISECONDS.toNanos(10);
+        private WaitStrategy waitStrategy = WaitStrategy.BLOCKING;
+
+        private Builder() {
+        }
+
+        public Builder corePoolSize(int corePoolSize) {
+            this.corePoolSize = corePoolSize;
+            return this;
+        }
+
+        public Builder maxPoolSize(int maxPoolSize) {
+            this.maxPoolSize = maxPoolSize;
+            return this;
+        }
+
+        public Builder minSpareThreads(int minSpareThreads) {
+            this.minSpareThreads = minSpareThreads;
+            return this;
+        }
+
+        public Builder keepAliveTime(long keepAliveTime, TimeUnit timeUnit) {
+            this.keepAliveTime = keepAliveTime;
+            this.timeUnit = timeUnit;
+            return this;
+        }
+
+        public Builder queueSize(int queueSize) {
+            this.queueSize = queueSize;
+            return this;
+        }
+
+        /**
+         * Простаивающие воркеры забирают задачи с хвоста очередей соседей,
+         * чтобы одна медленная задача не держала всю свою очередь.
+         */
+        public Builder workStealing(boolean workStealing) {
+            this.workStealing = workStealing;
+            return this;
+        }
+
+        public Builder queueType(QueueType queueType) {
+            this.queueType = queueType;
+            return this;
+        }
+
+        /**
+         * Стратегия выбора очереди для новой задачи, по умолчанию {@link TaskPlacementStrategy#roundRobin()}.
+         * Экземпляр со своим состоянием не стоит делить между пулами.
+         */
+        public Builder placementStrategy(TaskPlacementStrategy placementStrategy) {
+            this.placementStrategy = placementStrategy;
+            return this;
+        }
+
+        /**
+         * Размер кольцевого буфера диагностических событий. Переполнение не блокирует пул,
+         * лишние события отбрасываются.
+         */
+        public Builder eventBufferSize(int eventBufferSize) {
+            this.eventBufferSize = eventBufferSize;
+            return this;
+        }
+
+        /**
+         * Записывать только одно событие уровня {@code level} из {@code oneInN}.
+         */
+        public Builder eventSampling(Level level, int oneInN) {
+            this.eventSampleRates.put(level, oneInN);
+            return this;
+        }
+
+        /**
+         * Зарегистрировать метрики пула в platform MBeanServer под
+         * {@code org.example.threadpool:type=CustomThreadPool,name=<jmxName>}. Снимается при shutdown.
+         */
+        public Builder jmxName(String jmxName) {
+            this.jmxName = jmxName;
+            return this;
+        }
+
+        /**
+         * Каждая задача получает свой виртуальный поток: блокирующие задачи не занимают
+         * платформенные потоки, а размеры пула и keepAliveTime не используются.
+         */
+        public Builder virtualThreads(boolean virtualThreads) {
+            this.virtualThreads = virtualThreads;
+            return this;
+        }
+
+        /**
+         * Для виртуальных потоков: сколько задач выполняется одновременно (0 - без ограничений).
+         * Еще до queueSize задач ждут разрешения, остальные отклоняются.
+         */
+        public Builder maxConcurrency(int maxConcurrency) {
+            this.maxConcurrency = maxConcurrency;
+            return this;
+        }
+
+        /**
+         * Размером пула между corePoolSize и maxPoolSize управляет фоновый контроллер:
+         * добавляет воркеров, пока время ожидания в очереди выше цели, и убирает их при простое.
+         * Рост из execute (minSpareThreads) и уход по keepAliveTime при этом отключаются.
+         */
+        public Builder adaptiveSizing(long targetQueueWait, TimeUnit unit) {
+            this.targetQueueWaitNanos = unit.toNanos(targetQueueWait);
+            return this;
+        }
+
+        /**
+         * Что делать, когда очередь выбранного воркера полна. По умолчанию
+         * {@link RejectionPolicy#retryOtherQueues()}: переложить в другую очередь или сразу отклонить.
+         */
+        public Builder rejectionPolicy(RejectionPolicy rejectionPolicy) {
+            this.rejectionPolicy = rejectionPolicy;
+            return this;
+        }
+
+        /**
+         * Общая очередь переполнения для {@link RejectionPolicy#spillToOverflow()}.
+         * Ее разбирают все воркеры, когда их собственные очереди пусты, и периодически - под нагрузкой.
+         */
+        public Builder overflowQueueSize(int overflowQueueSize) {
+            this.overflowQueueSize = overflowQueueSize;
+            return this;
+        }
+
+        /**
+         * Шаг старения приоритетов: задача {@link TaskPriority} с ordinal() = n получает дедлайн
+         * через n шагов после постановки. Чем больше шаг, тем сильнее приоритет и тем дольше
+         * может ждать низкоприоритетная задача. По умолчанию 10 мс.
+         */
+        public Builder priorityAging(long step, TimeUnit unit) {
+            this.priorityAgingNanos = unit.toNanos(step);
+            return this;
+        }
+
+        /**
+         * Тик колеса таймеров: точность schedule и частота, с которой просыпается поток колеса.
+         * По умолчанию 10 мс.
+         */
+        public Builder timerTick(long tick, TimeUnit unit) {
+            this.timerTickNanos = unit.toNanos(tick);
+            return this;
+        }
+
+        /**
+         * Как воркеры ждут задачи, см. {@link WaitStrategy}. На виртуальных потоках не используется.
+         */
+        public Builder waitStrategy(WaitStrategy waitStrategy) {
+            this.waitStrategy = Objects.requireNonNull(waitStrategy);
+            return this;
+        }
+
+        public CustomThreadPool build() {
+            if (corePoolSize < 1 || maxPoolSize < corePoolSize || queueSize < 1) {
+                throw new IllegalArgumentException("Invalid pool configuration");
+            }
+            if (workStealing && queueType == QueueType.MPSC_RING) {
+                throw new IllegalArgumentException("Work stealing needs a multi-consumer queue, MPSC ring has one consumer");
+            }
+            if (virtualThreads && workStealing) {
+                throw new IllegalArgumentException("Virtual threads have no worker queues to steal from");
+            }
+            if (timerTickNanos <= 0) {
+                throw new IllegalArgumentException("Timer tick must be positive");
+            }
+            if (priorityAgingNanos < 0) {
+                throw new IllegalArgumentException("Priority aging step must not be negative");
+            }
+            if (maxConcurrency < 0) {
+                throw new IllegalArgumentException("maxConcurrency must not be negative");
             }
+            // MBean получает ссылку на пул, поэтому регистрируем его только после конструктора
+            CustomThreadPool pool = new CustomThreadPool(this);
+            pool.registerMBean(jmxName);
+            return pool;
         }
     }
-}
\ No newline at end of file
+}
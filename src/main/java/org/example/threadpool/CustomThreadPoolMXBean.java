@@ -0,0 +1,42 @@
+package org.example.threadpool;
+
+/**
+ * JMX-представление {@link CustomThreadPool}. Времена - в микросекундах.
+ */
+public interface CustomThreadPoolMXBean {
+    int getPoolSize();
+
+    int getActiveThreads();
+
+    int[] getQueueDepths();
+
+    long getCompletedTaskCount();
+
+    long getFailedTaskCount();
+
+    long getRejectedTaskCount();
+
+    long getCreatedWorkerCount();
+
+    long getRetiredWorkerCount();
+
+    long getStolenTaskCount();
+
+    long getDroppedEventCount();
+
+    double getQueueWaitMeanMicros();
+
+    long getQueueWaitP50Micros();
+
+    long getQueueWaitP99Micros();
+
+    long getQueueWaitMaxMicros();
+
+    double getExecutionTimeMeanMicros();
+
+    long getExecutionTimeP50Micros();
+
+    long getExecutionTimeP99Micros();
+
+    long getExecutionTimeMaxMicros();
+}
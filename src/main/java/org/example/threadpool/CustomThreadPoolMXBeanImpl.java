@@ -0,0 +1,99 @@
+package org.example.threadpool;
+
+class CustomThreadPoolMXBeanImpl implements CustomThreadPoolMXBean {
+    private final CustomThreadPool pool;
+
+    CustomThreadPoolMXBeanImpl(CustomThreadPool pool) {
+        this.pool = pool;
+    }
+
+    @Override
+    public int getPoolSize() {
+        return pool.getPoolSize();
+    }
+
+    @Override
+    public int getActiveThreads() {
+        return pool.getActiveThreads();
+    }
+
+    @Override
+    public int[] getQueueDepths() {
+        return pool.getQueueDepths();
+    }
+
+    @Override
+    public long getCompletedTaskCount() {
+        return pool.getMetrics().getCompletedTaskCount();
+    }
+
+    @Override
+    public long getFailedTaskCount() {
+        return pool.getMetrics().getFailedTaskCount();
+    }
+
+    @Override
+    public long getRejectedTaskCount() {
+        return pool.getMetrics().getRejectedTaskCount();
+    }
+
+    @Override
+    public long getCreatedWorkerCount() {
+        return pool.getMetrics().getCreatedWorkerCount();
+    }
+
+    @Override
+    public long getRetiredWorkerCount() {
+        return pool.getMetrics().getRetiredWorkerCount();
+    }
+
+    @Override
+    public long getStolenTaskCount() {
+        return pool.getStolenTaskCount();
+    }
+
+    @Override
+    public long getDroppedEventCount() {
+        return pool.getDroppedEventCount();
+    }
+
+    @Override
+    public double getQueueWaitMeanMicros() {
+        return pool.getMetrics().getQueueWaitSnapshot().getMean() / 1_000.0;
+    }
+
+    @Override
+    public long getQueueWaitP50Micros() {
+        return pool.getMetrics().getQueueWaitSnapshot().getValueAtPercentile(50) / 1_000;
+    }
+
+    @Override
+    public long getQueueWaitP99Micros() {
+        return pool.getMetrics().getQueueWaitSnapshot().getValueAtPercentile(99) / 1_000;
+    }
+
+    @Override
+    public long getQueueWaitMaxMicros() {
+        return pool.getMetrics().getQueueWaitSnapshot().getMaxValue() / 1_000;
+    }
+
+    @Override
+    public double getExecutionTimeMeanMicros() {
+        return pool.getMetrics().getExecutionTimeSnapshot().getMean() / 1_000.0;
+    }
+
+    @Override
+    public long getExecutionTimeP50Micros() {
+        return pool.getMetrics().getExecutionTimeSnapshot().getValueAtPercentile(50) / 1_000;
+    }
+
+    @Override
+    public long getExecutionTimeP99Micros() {
+        return pool.getMetrics().getExecutionTimeSnapshot().getValueAtPercentile(99) / 1_000;
+    }
+
+    @Override
+    public long getExecutionTimeMaxMicros() {
+        return pool.getMetrics().getExecutionTimeSnapshot().getMaxValue() / 1_000;
+    }
+}
@@ -1,38 +1,78 @@
 package org.example.threadpool;
 
-import java.util.List;
+import java.util.concurrent.BlockingDeque;
 import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ThreadLocalRandom;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
 import java.util.logging.Logger;
 
 public class CustomWorker implements Runnable {
+    // Как часто простаивающий воркер заново обходит соседей в поисках работы
+    private static final long STEAL_SCAN_INTERVAL_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+    // Производитель со старым снимком очередей может еще положить задачу в очередь уходящего воркера.
+    // Потеряться она не может: опоздавшую задачу переносит сам производитель (CustomThreadPool#checkRetired).
+    // Воркер же немного дорабатывает очередь, чтобы такие задачи обычно выполнял он, а не переносили
+    private static final long RETIRE_GRACE_NANOS = TimeUnit.MILLISECONDS.toNanos(200);
+    private static final long RETIRE_POLL_NANOS = TimeUnit.MILLISECONDS.toNanos(10);
+    // Под нагрузкой своя очередь не пустеет, поэтому очередь переполнения проверяется через каждые N
+    // выполненных задач; простаивающий воркер проверяет ее и так, в pollOrHelp
+    private static final int OVERFLOW_CHECK_PERIOD = 32;
+    // Фазы активного ожидания и пределы паузы для SPIN_PARK
+    private static final int IDLE_SPINS = 100;
+    private static final int IDLE_YIELDS = 10;
+    private static final long MIN_IDLE_PARK_NANOS = TimeUnit.MICROSECONDS.toNanos(1);
+    private static final long MAX_IDLE_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+    // При активном ожидании соседей и очередь переполнения проверяем не на каждом витке
+    private static final int IDLE_SCAN_PERIOD = 64;
+
     final Thread thread;
     private final Logger logger;
-    private final BlockingQueue<Runnable> queue;
-    private final int corePoolSize;
+    private final PoolEventRecorder events;
+    private final PoolMetrics metrics;
+    final BlockingQueue<Runnable> queue;
+    private final CustomThreadPool pool;
     private final long keepAliveTime;
     private final TimeUnit timeUnit;
     private final AtomicInteger activeThreads;
-    private final List workers;
+    private final boolean workStealing;
+    private final BlockingQueue<Runnable> overflow;
+    private final WaitStrategy waitStrategy;
+    private final LongAdder stolenTasks;
     private volatile boolean running = true;
+    private volatile boolean retiring = false;
+    private long retireRequestedAt;
+    private long stolenByMe;
+    private int tasksSinceOverflowCheck;
 
     CustomWorker(
             BlockingQueue<Runnable> queue,
             CustomThreadFactory threadFactory,
-            List workers,
+            CustomThreadPool pool,
             Logger logger,
-            int corePoolSize,
+            PoolEventRecorder events,
+            PoolMetrics metrics,
             AtomicInteger activeThreads,
             long keepAliveTime,
-            TimeUnit timeUnit
+            TimeUnit timeUnit,
+            boolean workStealing,
+            BlockingQueue<Runnable> overflow,
+            WaitStrategy waitStrategy,
+            LongAdder stolenTasks
     ) {
         this.queue = queue;
-        this.corePoolSize = corePoolSize;
+        this.pool = pool;
         this.keepAliveTime = keepAliveTime;
         this.timeUnit = timeUnit;
         this.logger = logger;
-        this.workers = workers;
+        this.events = events;
+        this.metrics = metrics;
+        this.workStealing = workStealing;
+        this.overflow = overflow;
+        this.waitStrategy = waitStrategy;
+        this.stolenTasks = stolenTasks;
         this.thread = threadFactory.newThread(this);
         this.activeThreads = activeThreads;
     }
@@ -41,31 +81,158 @@ public class CustomWorker implements Runnable {
     public void run() {
         try {
             while (running) {
-                Runnable task = queue.poll(keepAliveTime, timeUnit);
+                Runnable task;
+                if (retiring) {
+                    task = queue.poll(RETIRE_POLL_NANOS, TimeUnit.NANOSECONDS);
+                } else if (overflow != null && tasksSinceOverflowCheck >= OVERFLOW_CHECK_PERIOD) {
+                    tasksSinceOverflowCheck = 0;
+                    task = overflow.poll();
+                    if (task == null) {
+                        continue;
+                    }
+                } else {
+                    task = waitStrategy == WaitStrategy.BLOCKING && !workStealing && overflow == null
+                            ? queue.poll(keepAliveTime, timeUnit)
+                            : pollOrHelp();
+                }
+
                 if (task != null) {
-                    activeThreads.incrementAndGet();
-                    try {
-                        logger.info(String.format("[Worker] %s р-р-р-работаем %s",
-                                Thread.currentThread().getName(), task));
-                        task.run();
-                    } finally {
-                        activeThreads.decrementAndGet();
+                    runTask(task);
+                    tasksSinceOverflowCheck++;
+                } else if (retiring) {
+                    if (System.nanoTime() - retireRequestedAt >= RETIRE_GRACE_NANOS) {
+                        break;
                     }
-                } else if (workers.size() > corePoolSize) {
+                } else if (pool.tryRetireIdle(this)) {
                     logger.info(String.format("[Worker] %s делать нечего, ждемс..",
                             Thread.currentThread().getName()));
-                    break;
                 }
             }
         } catch (InterruptedException e) {
             Thread.currentThread().interrupt();
         } finally {
-            workers.remove(this);
-            logger.info(String.format("[Worker] %s отваливаюсь.",
-                    Thread.currentThread().getName()));
+            pool.onWorkerExit(this);
+            logger.info(String.format("[Worker] %s отваливаюсь. Украдено задач: %d",
+                    Thread.currentThread().getName(), stolenByMe));
         }
     }
 
+    private void runTask(Runnable task) {
+        PoolTask poolTask = (PoolTask) task;
+        long startedAt = System.nanoTime();
+        boolean failed = true;
+
+        activeThreads.incrementAndGet();
+        try {
+            events.record(PoolEventRecorder.Event.TASK_STARTED, -1, poolTask.task);
+            poolTask.task.run();
+            failed = false;
+        } finally {
+            activeThreads.decrementAndGet();
+            metrics.taskCompleted(startedAt - poolTask.enqueuedAt, System.nanoTime() - startedAt, failed);
+        }
+    }
+
+    /**
+     * Берет задачу из своей очереди, а если она пуста - с хвоста очереди соседа или из общей
+     * очереди переполнения, пока не выйдет keepAliveTime. Между попытками ждет по {@link WaitStrategy}:
+     * в блокирующем режиме соседи обходятся раз в {@link #STEAL_SCAN_INTERVAL_NANOS},
+     * в активном - раз в {@link #IDLE_SCAN_PERIOD} витков.
+     *
+     * @return задача или null, если за keepAliveTime работы так и не нашлось
+     */
+    private Runnable pollOrHelp() throws InterruptedException {
+        long idleDeadline = System.nanoTime() + timeUnit.toNanos(keepAliveTime);
+        boolean blocking = waitStrategy == WaitStrategy.BLOCKING;
+        long idleRounds = 0;
+
+        while (running && !retiring) {
+            Runnable task = queue.poll();
+            if (task != null) {
+                return task;
+            }
+
+            boolean scan = blocking || idleRounds % IDLE_SCAN_PERIOD == 0;
+            if (scan && workStealing) {
+                task = steal();
+                if (task != null) {
+                    return task;
+                }
+            }
+
+            if (scan && overflow != null) {
+                task = overflow.poll();
+                if (task != null) {
+                    return task;
+                }
+            }
+
+            long remaining = idleDeadline - System.nanoTime();
+            if (remaining <= 0) {
+                return null;
+            }
+
+            if (blocking) {
+                task = queue.poll(Math.min(remaining, STEAL_SCAN_INTERVAL_NANOS), TimeUnit.NANOSECONDS);
+                if (task != null) {
+                    return task;
+                }
+            } else {
+                idle(idleRounds++);
+            }
+        }
+
+        return null;
+    }
+
+    private void idle(long idleRounds) {
+        if (waitStrategy == WaitStrategy.BUSY_SPIN || idleRounds < IDLE_SPINS) {
+            Thread.onSpinWait();
+        } else if (waitStrategy == WaitStrategy.SPIN_YIELD || idleRounds < IDLE_SPINS + IDLE_YIELDS) {
+            Thread.yield();
+        } else {
+            int doublings = (int) Math.min(idleRounds - IDLE_SPINS - IDLE_YIELDS, 20);
+            LockSupport.parkNanos(this, Math.min(MIN_IDLE_PARK_NANOS << doublings, MAX_IDLE_PARK_NANOS));
+        }
+    }
+
+    private Runnable steal() {
+        QueueSet siblings = pool.queueSet();
+        int size = siblings.size();
+        if (size < 2) {
+            return null;
+        }
+
+        // Начинаем обход со случайного соседа, чтобы воры не толпились на одной очереди
+        int start = ThreadLocalRandom.current().nextInt(size);
+        for (int i = 0; i < size; i++) {
+            BlockingQueue<Runnable> victim = siblings.get((start + i) % size);
+            if (victim == queue) {
+                continue;
+            }
+            // С дека берем самую свежую задачу, из DEADLINE-очереди - самую срочную
+            Runnable task = victim instanceof BlockingDeque<Runnable> deque
+                    ? deque.pollLast()
+                    : victim instanceof DeadlineQueue ? victim.poll() : null;
+            if (task != null) {
+                stolenByMe++;
+                stolenTasks.increment();
+                return task;
+            }
+        }
+
+        return null;
+    }
+
+    /**
+     * Пул уже убрал очередь воркера из раздачи: воркер доделывает то, что успело в нее попасть, и завершается.
+     */
+    void retire() {
+        retireRequestedAt = System.nanoTime();
+        retiring = true;
+        metrics.workerRetired();
+    }
+
     void shutdown() {
         running = false;
     }
@@ -0,0 +1,226 @@
+package org.example.threadpool;
+
+import java.util.AbstractQueue;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Ограниченная блокирующая очередь задач пула, упорядоченная по ближайшему дедлайну (EDF).
+ * Задачи с одинаковым дедлайном выходят в порядке вставки.
+ * Принимает только {@link PoolTask}: других задач в очередях воркеров не бывает.
+ */
+class DeadlineQueue extends AbstractQueue<Runnable> implements BlockingQueue<Runnable> {
+    private final PriorityQueue<PoolTask> heap;
+    private final int capacity;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition notEmpty = lock.newCondition();
+    private final Condition notFull = lock.newCondition();
+    private long nextSequence;
+
+    DeadlineQueue(int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("Capacity must be positive");
+        }
+        this.capacity = capacity;
+        // Дедлайны в шкале nanoTime сравниваются через разность, как того требует System.nanoTime
+        this.heap = new PriorityQueue<>(Math.min(capacity, 64), (a, b) -> {
+            long diff = a.deadline - b.deadline;
+            return diff != 0 ? Long.signum(diff) : Long.compare(a.sequence, b.sequence);
+        });
+    }
+
+    @Override
+    public boolean offer(Runnable task) {
+        PoolTask poolTask = (PoolTask) task;
+        lock.lock();
+        try {
+            if (heap.size() >= capacity) {
+                return false;
+            }
+            insert(poolTask);
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public boolean offer(Runnable task, long timeout, TimeUnit unit) throws InterruptedException {
+        PoolTask poolTask = (PoolTask) task;
+        long nanos = unit.toNanos(timeout);
+        lock.lockInterruptibly();
+        try {
+            while (heap.size() >= capacity) {
+                if (nanos <= 0) {
+                    return false;
+                }
+                nanos = notFull.awaitNanos(nanos);
+            }
+            insert(poolTask);
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void put(Runnable task) throws InterruptedException {
+        PoolTask poolTask = (PoolTask) task;
+        lock.lockInterruptibly();
+        try {
+            while (heap.size() >= capacity) {
+                notFull.await();
+            }
+            insert(poolTask);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public Runnable poll() {
+        lock.lock();
+        try {
+            return heap.isEmpty() ? null : extract();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Забирает задачу с самым поздним дедлайном, то есть наименее срочную. Линейный проход по куче:
+     * нужен только при перегрузке, для {@link RejectionPolicy#discardOldest()}.
+     */
+    Runnable pollLatest() {
+        lock.lock();
+        try {
+            PoolTask latest = null;
+            for (PoolTask task : heap) {
+                if (latest == null || heap.comparator().compare(task, latest) > 0) {
+                    latest = task;
+                }
+            }
+            if (latest != null) {
+                heap.remove(latest);
+                notFull.signal();
+            }
+            return latest;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public Runnable poll(long timeout, TimeUnit unit) throws InterruptedException {
+        long nanos = unit.toNanos(timeout);
+        lock.lockInterruptibly();
+        try {
+            while (heap.isEmpty()) {
+                if (nanos <= 0) {
+                    return null;
+                }
+                nanos = notEmpty.awaitNanos(nanos);
+            }
+            return extract();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public Runnable take() throws InterruptedException {
+        lock.lockInterruptibly();
+        try {
+            while (heap.isEmpty()) {
+                notEmpty.await();
+            }
+            return extract();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public Runnable peek() {
+        lock.lock();
+        try {
+            return heap.peek();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public int size() {
+        lock.lock();
+        try {
+            return heap.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public int remainingCapacity() {
+        lock.lock();
+        try {
+            return capacity - heap.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public int drainTo(Collection<? super Runnable> c) {
+        return drainTo(c, Integer.MAX_VALUE);
+    }
+
+    @Override
+    public int drainTo(Collection<? super Runnable> c, int maxElements) {
+        lock.lock();
+        try {
+            int drained = 0;
+            while (drained < maxElements && !heap.isEmpty()) {
+                c.add(heap.poll());
+                drained++;
+            }
+            if (drained > 0) {
+                notFull.signalAll();
+            }
+            return drained;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Снимок содержимого без определенного порядка.
+     */
+    @Override
+    public Iterator<Runnable> iterator() {
+        lock.lock();
+        try {
+            return List.<Runnable>copyOf(heap).iterator();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void insert(PoolTask task) {
+        task.sequence = nextSequence++;
+        heap.add(task);
+        notEmpty.signal();
+    }
+
+    private PoolTask extract() {
+        PoolTask task = heap.poll();
+        notFull.signal();
+        return task;
+    }
+}
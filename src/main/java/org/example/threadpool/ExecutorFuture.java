@@ -0,0 +1,53 @@
+package org.example.threadpool;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+
+/**
+ * CompletableFuture, у которого исполнитель по умолчанию - наш пул, а не ForkJoinPool.commonPool().
+ * Все зависимые стадии (thenApplyAsync, thenComposeAsync и т.д.) без явного executor
+ * тоже выполняются в пуле и сами являются ExecutorFuture.
+ */
+class ExecutorFuture<T> extends CompletableFuture<T> {
+    private final Executor executor;
+
+    ExecutorFuture(Executor executor) {
+        this.executor = executor;
+    }
+
+    @Override
+    public Executor defaultExecutor() {
+        return executor;
+    }
+
+    @Override
+    public <U> CompletableFuture<U> newIncompleteFuture() {
+        return new ExecutorFuture<>(executor);
+    }
+
+    /**
+     * Задача, которая завершает future своим результатом. Если future уже отменен, вызов пропускается.
+     */
+    static final class Completion<T> implements Runnable {
+        private final ExecutorFuture<T> future;
+        private final Callable<T> task;
+
+        Completion(ExecutorFuture<T> future, Callable<T> task) {
+            this.future = future;
+            this.task = task;
+        }
+
+        @Override
+        public void run() {
+            if (future.isDone()) {
+                return;
+            }
+            try {
+                future.complete(task.call());
+            } catch (Throwable e) {
+                future.completeExceptionally(e);
+            }
+        }
+    }
+}
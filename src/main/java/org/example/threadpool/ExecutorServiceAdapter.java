@@ -0,0 +1,36 @@
+package org.example.threadpool;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+/**
+ * Позволяет гонять JDK-пулы через тот же интерфейс, что и CustomThreadPool.
+ */
+public class ExecutorServiceAdapter implements CustomExecutor {
+    private final ExecutorService delegate;
+
+    public ExecutorServiceAdapter(ExecutorService delegate) {
+        this.delegate = delegate;
+    }
+
+    @Override
+    public void execute(Runnable command) {
+        delegate.execute(command);
+    }
+
+    @Override
+    public <T> Future<T> submit(Callable<T> task) {
+        return delegate.submit(task);
+    }
+
+    @Override
+    public void shutdown() {
+        delegate.shutdown();
+    }
+
+    @Override
+    public void shutdownNow() {
+        delegate.shutdownNow();
+    }
+}
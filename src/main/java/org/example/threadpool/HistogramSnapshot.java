@@ -0,0 +1,76 @@
+package org.example.threadpool;
+
+/**
+ * Неизменяемый снимок {@link StripedHistogram}.
+ */
+public class HistogramSnapshot {
+    private final StripedHistogram histogram;
+    private final long[] counts;
+    private final long totalCount;
+
+    HistogramSnapshot(StripedHistogram histogram, long[] counts) {
+        this.histogram = histogram;
+        this.counts = counts;
+        long total = 0;
+        for (long count : counts) {
+            total += count;
+        }
+        this.totalCount = total;
+    }
+
+    /**
+     * Значения, записанные после снимка {@code earlier} той же гистограммы.
+     */
+    public HistogramSnapshot since(HistogramSnapshot earlier) {
+        long[] delta = new long[counts.length];
+        for (int i = 0; i < counts.length; i++) {
+            delta[i] = Math.max(0, counts[i] - earlier.counts[i]);
+        }
+        return new HistogramSnapshot(histogram, delta);
+    }
+
+    public long getTotalCount() {
+        return totalCount;
+    }
+
+    /**
+     * @param percentile от 0 до 100
+     * @return верхняя граница корзины, до которой набирается нужная доля значений; 0 для пустого снимка
+     */
+    public long getValueAtPercentile(double percentile) {
+        if (totalCount == 0) {
+            return 0;
+        }
+        long threshold = Math.max(1, (long) Math.ceil(percentile / 100.0 * totalCount));
+        long seen = 0;
+        for (int i = 0; i < counts.length; i++) {
+            seen += counts[i];
+            if (seen >= threshold) {
+                return histogram.highestValueOf(i);
+            }
+        }
+        return getMaxValue();
+    }
+
+    public long getMaxValue() {
+        for (int i = counts.length - 1; i >= 0; i--) {
+            if (counts[i] != 0) {
+                return histogram.highestValueOf(i);
+            }
+        }
+        return 0;
+    }
+
+    public double getMean() {
+        if (totalCount == 0) {
+            return 0;
+        }
+        double sum = 0;
+        for (int i = 0; i < counts.length; i++) {
+            if (counts[i] != 0) {
+                sum += (double) counts[i] * histogram.medianValueOf(i);
+            }
+        }
+        return sum / totalCount;
+    }
+}
@@ -0,0 +1,136 @@
+package org.example.threadpool;
+
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Последовательные "полосы" по ключу: задачи одного ключа выполняются строго по очереди и в порядке
+ * отправки, задачи разных ключей - параллельно. За ключом не закреплен ни поток, ни воркер:
+ * у непустой полосы в пуле стоит ровно одна задача-разборщик.
+ * <p>
+ * Состояние полосы - счетчик ее задач. Отправитель, поднявший счетчик с 0, ставит разборщик в пул.
+ * Разборщик, выполнив последнюю задачу, переводит счетчик из 1 в -1: полоса закрыта, убирается из map,
+ * а следующий отправитель создаст новую. До 0 счетчик после первой задачи не опускается,
+ * поэтому второго разборщика быть не может.
+ * <p>
+ * Потерять разборщик нельзя: вместе с ним пропали бы все задачи ключа, а полоса так и осталась бы
+ * занятой. Поэтому он ставится в пул мимо политики отказа ({@link CustomThreadPool#dispatch}),
+ * а {@link RejectionPolicy#discardOldest()} его не выбрасывает.
+ */
+class KeyedLanes {
+    private static final Logger logger = Logger.getLogger(KeyedLanes.class.getName());
+
+    // Сколько задач разборщик выполняет подряд, прежде чем уступить воркер другим задачам пула
+    private static final int DRAIN_BATCH = 16;
+
+    private final CustomThreadPool pool;
+    private final BooleanSupplier isShutdown;
+    private final ConcurrentHashMap<Object, Lane> lanes = new ConcurrentHashMap<>();
+
+    KeyedLanes(CustomThreadPool pool, BooleanSupplier isShutdown) {
+        this.pool = pool;
+        this.isShutdown = isShutdown;
+    }
+
+    void execute(Object key, Runnable task) {
+        Objects.requireNonNull(key);
+        Objects.requireNonNull(task);
+
+        while (true) {
+            Lane lane = lanes.computeIfAbsent(key, Lane::new);
+            int count = lane.count.get();
+            if (count < 0) {
+                // Полоса закрывается прямо сейчас - поможем убрать ее и возьмем новую
+                lanes.remove(key, lane);
+                continue;
+            }
+            if (lane.count.compareAndSet(count, count + 1)) {
+                lane.tasks.add(task);
+                if (count == 0) {
+                    start(lane);
+                }
+                return;
+            }
+        }
+    }
+
+    static boolean isDrainer(Runnable task) {
+        return task instanceof Lane;
+    }
+
+    int activeLaneCount() {
+        return lanes.size();
+    }
+
+    private void start(Lane lane) {
+        try {
+            pool.dispatch(lane);
+        } catch (RejectedExecutionException e) {
+            if (isShutdown.getAsBoolean()) {
+                throw e;
+            }
+            // Задача уже в полосе, и за ней могли встать другие: разбираем в потоке отправителя
+            lane.run();
+        }
+    }
+
+    private final class Lane implements Runnable {
+        private final Object key;
+        private final ConcurrentLinkedQueue<Runnable> tasks = new ConcurrentLinkedQueue<>();
+        private final AtomicInteger count = new AtomicInteger();
+
+        Lane(Object key) {
+            this.key = key;
+        }
+
+        @Override
+        public void run() {
+            while (true) {
+                for (int i = 0; i < DRAIN_BATCH; i++) {
+                    Runnable task;
+                    // Отправитель уже поднял счетчик, но еще не успел положить задачу
+                    while ((task = tasks.poll()) == null) {
+                        Thread.onSpinWait();
+                    }
+
+                    // Упавшая задача не должна останавливать полосу: остальные задачи ключа ждут
+                    try {
+                        task.run();
+                    } catch (Throwable e) {
+                        logger.log(Level.WARNING, String.format("[Lane] Task for key %s failed", key), e);
+                    }
+
+                    if (count.compareAndSet(1, -1)) {
+                        lanes.remove(key, this);
+                        return;
+                    }
+                    count.decrementAndGet();
+                }
+
+                // Полоса не пуста: встаем в конец очереди пула, чтобы не держать воркер
+                try {
+                    pool.dispatch(this);
+                    return;
+                } catch (RejectedExecutionException e) {
+                    if (isShutdown.getAsBoolean()) {
+                        logger.warning(String.format("[Lane] Pool is shutdown, dropping %d tasks for key %s",
+                                count.get(), key));
+                        return;
+                    }
+                    // Пул перегружен - продолжаем разбирать на этом же воркере
+                }
+            }
+        }
+
+        @Override
+        public String toString() {
+            return "Lane[" + key + "]";
+        }
+    }
+}
@@ -0,0 +1,24 @@
+package org.example.threadpool;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+public class LeastLoadedPlacement implements TaskPlacementStrategy {
+    @Override
+    public int selectQueue(int queueCount, QueueDepths depths) {
+        // Случайная точка старта разводит производителей при равной глубине очередей
+        int start = ThreadLocalRandom.current().nextInt(queueCount);
+        int best = start;
+        int bestDepth = depths.depthOf(start);
+
+        for (int i = 1; i < queueCount && bestDepth > 0; i++) {
+            int index = (start + i) % queueCount;
+            int depth = depths.depthOf(index);
+            if (depth < bestDepth) {
+                best = index;
+                bestDepth = depth;
+            }
+        }
+
+        return best;
+    }
+}
@@ -0,0 +1,181 @@
+package org.example.threadpool;
+
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Генератор нагрузки с открытым циклом: запросы уходят по расписанию с заданной частотой,
+ * не дожидаясь завершения предыдущих. Если пул не справляется, растет очередь и задержка,
+ * а не падает частота запросов, как в закрытом цикле "отправил пачку - дождался".
+ * <p>
+ * Задержка каждой задачи считается от ее момента по расписанию, поэтому паузы самого генератора
+ * (GC, отказ пула, медленный execute) не прячут задержку - это поправка на coordinated omission.
+ * Гистограммы - {@link StripedHistogram} с точностью меньше 1%.
+ */
+public class LoadGenerator {
+    // Ближе этого к моменту отправки генератор не паркуется, а крутится: парковка неточна
+    private static final long SPIN_THRESHOLD_NANOS = TimeUnit.MICROSECONDS.toNanos(100);
+
+    private final int ratePerSecond;
+    private final LoadProfile profile;
+    private final long serviceTimeNanos;
+    private final int burstSize;
+    private final long warmupNanos;
+    private final long durationNanos;
+    private final long drainTimeoutNanos;
+
+    private LoadGenerator(Builder builder) {
+        this.ratePerSecond = builder.ratePerSecond;
+        this.profile = builder.profile;
+        this.serviceTimeNanos = builder.serviceTimeNanos;
+        this.burstSize = builder.profile == LoadProfile.BURSTY ? builder.burstSize : 1;
+        this.warmupNanos = builder.warmupNanos;
+        this.durationNanos = builder.durationNanos;
+        this.drainTimeoutNanos = builder.drainTimeoutNanos;
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * Гоняет нагрузку в вызывающем потоке: прогрев, затем замер. Пул не останавливается.
+     *
+     * @param name имя строки в отчете
+     */
+    public LoadReport run(String name, CustomExecutor executor) {
+        StripedHistogram corrected = new StripedHistogram(7, 40);
+        StripedHistogram uncorrected = new StripedHistogram(7, 40);
+        AtomicLong outstanding = new AtomicLong();
+        long rejected = 0;
+
+        long groupIntervalNanos = TimeUnit.SECONDS.toNanos(1) * burstSize / ratePerSecond;
+        long start = System.nanoTime();
+        long measureFrom = start + warmupNanos;
+        long end = measureFrom + durationNanos;
+
+        for (long i = 0; ; i++) {
+            long intendedAt = start + (i / burstSize) * groupIntervalNanos;
+            if (intendedAt - end >= 0) {
+                break;
+            }
+            waitUntil(intendedAt);
+
+            boolean measured = intendedAt - measureFrom >= 0;
+            long submittedAt = System.nanoTime();
+            outstanding.incrementAndGet();
+            try {
+                executor.execute(() -> {
+                    try {
+                        profile.work(serviceTimeNanos);
+                    } finally {
+                        if (measured) {
+                            long completedAt = System.nanoTime();
+                            corrected.record(completedAt - intendedAt);
+                            uncorrected.record(completedAt - submittedAt);
+                        }
+                        outstanding.decrementAndGet();
+                    }
+                });
+            } catch (RejectedExecutionException e) {
+                outstanding.decrementAndGet();
+                if (measured) {
+                    rejected++;
+                }
+            }
+        }
+
+        long drainDeadline = System.nanoTime() + drainTimeoutNanos;
+        while (outstanding.get() > 0 && System.nanoTime() - drainDeadline < 0) {
+            LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(1));
+        }
+
+        HistogramSnapshot correctedSnapshot = corrected.snapshot();
+        double achievedRate = correctedSnapshot.getTotalCount() * (double) TimeUnit.SECONDS.toNanos(1) / durationNanos;
+        return new LoadReport(name, profile, ratePerSecond, achievedRate, rejected, outstanding.get(),
+                correctedSnapshot, uncorrected.snapshot());
+    }
+
+    private static void waitUntil(long deadline) {
+        long remaining;
+        while ((remaining = deadline - System.nanoTime()) > 0) {
+            if (remaining > SPIN_THRESHOLD_NANOS) {
+                LockSupport.parkNanos(remaining - SPIN_THRESHOLD_NANOS);
+            } else {
+                Thread.onSpinWait();
+            }
+        }
+    }
+
+    public static class Builder {
+        private int ratePerSecond = 1_000;
+        private LoadProfile profile = LoadProfile.CPU_BOUND;
+        private long serviceTimeNanos = TimeUnit.MICROSECONDS.toNanos(100);
+        private int burstSize = 50;
+        private long warmupNanos = TimeUnit.SECONDS.toNanos(1);
+        private long durationNanos = TimeUnit.SECONDS.toNanos(5);
+        private long drainTimeoutNanos = TimeUnit.SECONDS.toNanos(10);
+
+        private Builder() {
+        }
+
+        /**
+         * Средняя частота запросов.
+         */
+        public Builder rate(int ratePerSecond) {
+            this.ratePerSecond = ratePerSecond;
+            return this;
+        }
+
+        public Builder profile(LoadProfile profile) {
+            this.profile = profile;
+            return this;
+        }
+
+        /**
+         * Сколько работает одна задача.
+         */
+        public Builder serviceTime(long serviceTime, TimeUnit unit) {
+            this.serviceTimeNanos = unit.toNanos(serviceTime);
+            return this;
+        }
+
+        /**
+         * Размер пачки для {@link LoadProfile#BURSTY}.
+         */
+        public Builder burstSize(int burstSize) {
+            this.burstSize = burstSize;
+            return this;
+        }
+
+        /**
+         * Начальный отрезок, задачи которого не попадают в отчет: JIT, создание потоков.
+         */
+        public Builder warmup(long warmup, TimeUnit unit) {
+            this.warmupNanos = unit.toNanos(warmup);
+            return this;
+        }
+
+        public Builder duration(long duration, TimeUnit unit) {
+            this.durationNanos = unit.toNanos(duration);
+            return this;
+        }
+
+        /**
+         * Сколько ждать незавершенные задачи после окончания расписания.
+         */
+        public Builder drainTimeout(long timeout, TimeUnit unit) {
+            this.drainTimeoutNanos = unit.toNanos(timeout);
+            return this;
+        }
+
+        public LoadGenerator build() {
+            if (ratePerSecond < 1 || burstSize < 1 || serviceTimeNanos < 0 || warmupNanos < 0 || durationNanos <= 0) {
+                throw new IllegalArgumentException("Invalid load configuration");
+            }
+            return new LoadGenerator(this);
+        }
+    }
+}
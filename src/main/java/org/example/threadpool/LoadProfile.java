@@ -0,0 +1,40 @@
+package org.example.threadpool;
+
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Вид нагрузки для {@link LoadGenerator}: что делает задача и как приходят запросы.
+ */
+public enum LoadProfile {
+    /**
+     * Задача занимает CPU на serviceTime, запросы приходят равномерно.
+     */
+    CPU_BOUND,
+
+    /**
+     * Задача ждет serviceTime (как будто на вводе-выводе), не занимая CPU.
+     */
+    BLOCKING,
+
+    /**
+     * Задачи как CPU_BOUND, но приходят пачками по burstSize с той же средней частотой.
+     */
+    BURSTY;
+
+    private static volatile long sink;
+
+    void work(long serviceTimeNanos) {
+        if (this == BLOCKING) {
+            LockSupport.parkNanos(serviceTimeNanos);
+            return;
+        }
+
+        long until = System.nanoTime() + serviceTimeNanos;
+        long x = 0;
+        while (System.nanoTime() < until) {
+            x = x * 31 + 17;
+        }
+        // Чтобы JIT не выбросил цикл
+        sink = x;
+    }
+}
@@ -0,0 +1,111 @@
+package org.example.threadpool;
+
+/**
+ * Результат одного прогона {@link LoadGenerator}. Строки отчетов разных пулов и настроек
+ * печатаются под общим заголовком {@link #header()} и сравниваются построчно.
+ * <p>
+ * Задержка corrected считается от момента, когда запрос должен был уйти по расписанию, поэтому
+ * учитывает и время, пока сам генератор не мог отправить запрос (coordinated omission).
+ * uncorrected - от фактической отправки, так меряет классический закрытый цикл.
+ */
+public class LoadReport {
+    private static final double[] PERCENTILES = {50, 90, 99, 99.9, 99.99};
+
+    private final String name;
+    private final LoadProfile profile;
+    private final int targetRate;
+    private final double achievedRate;
+    private final long rejected;
+    private final long incomplete;
+    private final HistogramSnapshot corrected;
+    private final HistogramSnapshot uncorrected;
+
+    LoadReport(String name, LoadProfile profile, int targetRate, double achievedRate, long rejected, long incomplete,
+               HistogramSnapshot corrected, HistogramSnapshot uncorrected) {
+        this.name = name;
+        this.profile = profile;
+        this.targetRate = targetRate;
+        this.achievedRate = achievedRate;
+        this.rejected = rejected;
+        this.incomplete = incomplete;
+        this.corrected = corrected;
+        this.uncorrected = uncorrected;
+    }
+
+    public static String header() {
+        return String.format("%-24s %-10s %8s %9s %9s %8s %10s %10s %10s %10s %10s %10s %12s",
+                "executor", "profile", "rate/s", "achieved", "completed", "rejected",
+                "p50 us", "p90 us", "p99 us", "p99.9 us", "p99.99 us", "max us", "p99 raw us");
+    }
+
+    /**
+     * Строка под {@link #header()}. Все задержки - corrected, кроме последней колонки.
+     */
+    public String formatRow() {
+        StringBuilder row = new StringBuilder(String.format("%-24s %-10s %8d %9.0f %9d %8d",
+                name, profile, targetRate, achievedRate, getCompletedCount(), rejected));
+        for (double percentile : PERCENTILES) {
+            row.append(String.format(" %10.1f", micros(corrected.getValueAtPercentile(percentile))));
+        }
+        row.append(String.format(" %10.1f %12.1f",
+                micros(corrected.getMaxValue()), micros(uncorrected.getValueAtPercentile(99))));
+        if (incomplete > 0) {
+            row.append(String.format("  (%d not finished)", incomplete));
+        }
+        return row.toString();
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public LoadProfile getProfile() {
+        return profile;
+    }
+
+    public int getTargetRate() {
+        return targetRate;
+    }
+
+    public double getAchievedRate() {
+        return achievedRate;
+    }
+
+    public long getCompletedCount() {
+        return corrected.getTotalCount();
+    }
+
+    public long getRejectedCount() {
+        return rejected;
+    }
+
+    /**
+     * Задачи, которые не успели завершиться за отведенное после прогона время.
+     */
+    public long getIncompleteCount() {
+        return incomplete;
+    }
+
+    /**
+     * Задержка в наносекундах от запланированного момента отправки до завершения задачи.
+     */
+    public HistogramSnapshot getCorrectedLatency() {
+        return corrected;
+    }
+
+    /**
+     * Задержка в наносекундах от фактической отправки до завершения задачи.
+     */
+    public HistogramSnapshot getUncorrectedLatency() {
+        return uncorrected;
+    }
+
+    @Override
+    public String toString() {
+        return formatRow();
+    }
+
+    private static double micros(long nanos) {
+        return nanos / 1_000.0;
+    }
+}
@@ -0,0 +1,361 @@
+package org.example.threadpool;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.AbstractQueue;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Ограниченная lock-free очередь на кольцевом массиве: много производителей, один потребитель.
+ * Производители резервируют слот CAS-ом по producerIndex, потребитель читает без атомиков.
+ * Индексы разнесены по разным кэш-линиям паддингом через иерархию классов
+ * (поля суперкласса JVM раскладывает раньше полей наследника).
+ * <p>
+ * Забирать элементы может только один поток - владелец очереди, поэтому кража задач с этой очередью невозможна.
+ */
+class MpscRingBuffer<E> extends MpscRingBufferFields<E> implements BlockingQueue<E> {
+    private static final VarHandle SLOTS = MethodHandles.arrayElementVarHandle(Object[].class);
+
+    // Пока места нет, производитель ждет с нарастающими паузами, но не дольше этого
+    private static final long MAX_PRODUCER_BACKOFF_NANOS = TimeUnit.MICROSECONDS.toNanos(100);
+
+    private final Object[] buffer;
+    private final int mask;
+    private final int capacity;
+
+    MpscRingBuffer(int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("Capacity must be positive");
+        }
+        int length = 1 << (32 - Integer.numberOfLeadingZeros(capacity - 1));
+        this.buffer = new Object[length];
+        this.mask = length - 1;
+        this.capacity = capacity;
+    }
+
+    @Override
+    public boolean offer(E e) {
+        if (e == null) {
+            throw new NullPointerException();
+        }
+
+        long limit = producerLimit;
+        long index;
+        do {
+            index = producerIndex();
+            if (index >= limit) {
+                limit = consumerIndex() + capacity;
+                if (index >= limit) {
+                    return false;
+                }
+                producerLimit = limit;
+            }
+        } while (!casProducerIndex(index, index + 1));
+
+        SLOTS.setRelease(buffer, (int) (index & mask), e);
+
+        Thread waiter = consumerWaiter;
+        if (waiter != null) {
+            LockSupport.unpark(waiter);
+        }
+        return true;
+    }
+
+    /**
+     * Кладет сколько поместится из items[from, to) одним CAS-ом на всю пачку.
+     *
+     * @return число принятых элементов, начиная с items[from]
+     */
+    int offerAll(E[] items, int from, int to) {
+        int wanted = to - from;
+        if (wanted <= 0) {
+            return 0;
+        }
+        // Проверяем до резервирования: незаполненный слот навсегда остановил бы потребителя
+        for (int i = from; i < to; i++) {
+            if (items[i] == null) {
+                throw new NullPointerException();
+            }
+        }
+
+        long limit = producerLimit;
+        long index;
+        int claimed;
+        do {
+            index = producerIndex();
+            if (index + wanted > limit) {
+                limit = consumerIndex() + capacity;
+                producerLimit = limit;
+            }
+            claimed = (int) Math.min(wanted, limit - index);
+            if (claimed <= 0) {
+                return 0;
+            }
+        } while (!casProducerIndex(index, index + claimed));
+
+        for (int i = 0; i < claimed; i++) {
+            SLOTS.setRelease(buffer, (int) ((index + i) & mask), items[from + i]);
+        }
+
+        Thread waiter = consumerWaiter;
+        if (waiter != null) {
+            LockSupport.unpark(waiter);
+        }
+        return claimed;
+    }
+
+    @Override
+    public boolean offer(E e, long timeout, TimeUnit unit) throws InterruptedException {
+        if (offer(e)) {
+            return true;
+        }
+
+        long deadline = System.nanoTime() + unit.toNanos(timeout);
+        long backoff = 1_000;
+        while (true) {
+            if (Thread.interrupted()) {
+                throw new InterruptedException();
+            }
+            long remaining = deadline - System.nanoTime();
+            if (remaining <= 0) {
+                return false;
+            }
+            LockSupport.parkNanos(Math.min(backoff, remaining));
+            backoff = Math.min(backoff << 1, MAX_PRODUCER_BACKOFF_NANOS);
+            if (offer(e)) {
+                return true;
+            }
+        }
+    }
+
+    @Override
+    public void put(E e) throws InterruptedException {
+        while (!offer(e, Long.MAX_VALUE, TimeUnit.NANOSECONDS)) {
+            // offer с таймаутом вернет false только по истечении срока
+        }
+    }
+
+    /**
+     * Вызывается только потоком-потребителем.
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    public E poll() {
+        long index = consumerIndexPlain();
+        int offset = (int) (index & mask);
+        Object e = SLOTS.getAcquire(buffer, offset);
+        if (e == null) {
+            if (index == producerIndex()) {
+                return null;
+            }
+            // Слот уже зарезервирован, но производитель еще не успел записать элемент
+            do {
+                Thread.onSpinWait();
+                e = SLOTS.getAcquire(buffer, offset);
+            } while (e == null);
+        }
+
+        SLOTS.setRelease(buffer, offset, null);
+        setConsumerIndex(index + 1);
+        return (E) e;
+    }
+
+    @Override
+    public E poll(long timeout, TimeUnit unit) throws InterruptedException {
+        E e = poll();
+        if (e != null) {
+            return e;
+        }
+
+        long deadline = System.nanoTime() + unit.toNanos(timeout);
+        consumerWaiter = Thread.currentThread();
+        try {
+            while (true) {
+                // Перепроверка после публикации consumerWaiter: иначе можно проспать offer
+                e = poll();
+                if (e != null) {
+                    return e;
+                }
+                if (Thread.interrupted()) {
+                    throw new InterruptedException();
+                }
+                long remaining = deadline - System.nanoTime();
+                if (remaining <= 0) {
+                    return null;
+                }
+                LockSupport.parkNanos(this, remaining);
+            }
+        } finally {
+            consumerWaiter = null;
+        }
+    }
+
+    @Override
+    public E take() throws InterruptedException {
+        E e;
+        do {
+            e = poll(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+        } while (e == null);
+        return e;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public E peek() {
+        return (E) SLOTS.getAcquire(buffer, (int) (consumerIndex() & mask));
+    }
+
+    @Override
+    public int size() {
+        // Читаем consumerIndex до и после, чтобы не получить размер от несогласованной пары индексов
+        long after = consumerIndex();
+        while (true) {
+            long before = after;
+            long producer = producerIndex();
+            after = consumerIndex();
+            if (before == after) {
+                return (int) Math.max(0, Math.min(producer - after, capacity));
+            }
+        }
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return consumerIndex() == producerIndex();
+    }
+
+    @Override
+    public int remainingCapacity() {
+        return capacity - size();
+    }
+
+    @Override
+    public int drainTo(Collection<? super E> c) {
+        return drainTo(c, Integer.MAX_VALUE);
+    }
+
+    @Override
+    public int drainTo(Collection<? super E> c, int maxElements) {
+        int drained = 0;
+        E e;
+        while (drained < maxElements && (e = poll()) != null) {
+            c.add(e);
+            drained++;
+        }
+        return drained;
+    }
+
+    /**
+     * Слабо согласованный итератор только для чтения (диагностика, toString).
+     */
+    @Override
+    public Iterator<E> iterator() {
+        long from = consumerIndex();
+        long to = producerIndex();
+        return new Iterator<>() {
+            private long index = from;
+            private E next = advance();
+
+            @SuppressWarnings("unchecked")
+            private E advance() {
+                while (index < to) {
+                    Object e = SLOTS.getAcquire(buffer, (int) (index++ & mask));
+                    if (e != null) {
+                        return (E) e;
+                    }
+                }
+                return null;
+            }
+
+            @Override
+            public boolean hasNext() {
+                return next != null;
+            }
+
+            @Override
+            public E next() {
+                if (next == null) {
+                    throw new NoSuchElementException();
+                }
+                E e = next;
+                next = advance();
+                return e;
+            }
+        };
+    }
+}
+
+abstract class MpscRingBufferPad0<E> extends AbstractQueue<E> {
+    long p00, p01, p02, p03, p04, p05, p06, p07;
+    long p10, p11, p12, p13, p14, p15, p16;
+}
+
+abstract class MpscRingBufferProducerFields<E> extends MpscRingBufferPad0<E> {
+    private static final VarHandle PRODUCER_INDEX;
+
+    static {
+        try {
+            PRODUCER_INDEX = MethodHandles.lookup()
+                    .findVarHandle(MpscRingBufferProducerFields.class, "producerIndex", long.class);
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    private volatile long producerIndex;
+    // Кэш consumerIndex + capacity: пока не дошли до него, производители не читают чужую кэш-линию
+    volatile long producerLimit;
+    // Производители читают его на каждом offer, а пишется он редко - держим на линии производителей,
+    // а не рядом с часто меняющимся consumerIndex
+    volatile Thread consumerWaiter;
+
+    final long producerIndex() {
+        return producerIndex;
+    }
+
+    final boolean casProducerIndex(long expected, long update) {
+        return PRODUCER_INDEX.compareAndSet(this, expected, update);
+    }
+}
+
+abstract class MpscRingBufferPad1<E> extends MpscRingBufferProducerFields<E> {
+    long p00, p01, p02, p03, p04, p05, p06, p07;
+    long p10, p11, p12, p13, p14, p15, p16;
+}
+
+abstract class MpscRingBufferConsumerFields<E> extends MpscRingBufferPad1<E> {
+    private static final VarHandle CONSUMER_INDEX;
+
+    static {
+        try {
+            CONSUMER_INDEX = MethodHandles.lookup()
+                    .findVarHandle(MpscRingBufferConsumerFields.class, "consumerIndex", long.class);
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    private volatile long consumerIndex;
+
+    final long consumerIndex() {
+        return consumerIndex;
+    }
+
+    final long consumerIndexPlain() {
+        return (long) CONSUMER_INDEX.get(this);
+    }
+
+    final void setConsumerIndex(long index) {
+        CONSUMER_INDEX.setRelease(this, index);
+    }
+}
+
+abstract class MpscRingBufferFields<E> extends MpscRingBufferConsumerFields<E> {
+    long p00, p01, p02, p03, p04, p05, p06, p07;
+    long p10, p11, p12, p13, p14, p15, p16;
+}
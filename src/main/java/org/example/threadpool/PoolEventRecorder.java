@@ -0,0 +1,160 @@
+package org.example.threadpool;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Журнал событий пула без аллокаций на горячем пути.
+ * События пишутся в заранее выделенные массивы-слоты кольцевого буфера, а форматирование
+ * и вызов JUL-логгера происходят в отдельном фоновом потоке.
+ * Если фоновый поток не успевает, новые события отбрасываются, а не тормозят производителя.
+ */
+class PoolEventRecorder {
+    private static final VarHandle PUBLISHED = MethodHandles.arrayElementVarHandle(long[].class);
+    private static final long DRAIN_INTERVAL_NANOS = TimeUnit.MILLISECONDS.toNanos(10);
+
+    enum Event {
+        TASK_ACCEPTED(Level.INFO),
+        TASK_STARTED(Level.INFO),
+        TASK_REJECTED(Level.WARNING);
+
+        final Level level;
+
+        Event(Level level) {
+            this.level = level;
+        }
+    }
+
+    private final Logger logger;
+    private final int mask;
+    private final int[] sampleRates;
+    private final Event[] events = Event.values();
+
+    // Слоты: по массиву на поле, чтобы не держать объект на каждое событие
+    private final long[] published;
+    private final int[] types;
+    private final Thread[] threads;
+    private final int[] queueIndexes;
+    private final int[] taskIds;
+
+    private final AtomicLong claimed = new AtomicLong();
+    private final AtomicLong consumed = new AtomicLong();
+    private final LongAdder dropped = new LongAdder();
+    private final Thread drainer;
+    private volatile boolean running = true;
+
+    /**
+     * @param capacity    размер буфера, округляется вверх до степени двойки
+     * @param sampleRates для уровня - записывать одно событие из N; уровни без записи пишутся все
+     */
+    PoolEventRecorder(Logger logger, int capacity, Map<Level, Integer> sampleRates) {
+        int length = 1 << (32 - Integer.numberOfLeadingZeros(Math.max(capacity, 2) - 1));
+        this.logger = logger;
+        this.mask = length - 1;
+        this.published = new long[length];
+        this.types = new int[length];
+        this.threads = new Thread[length];
+        this.queueIndexes = new int[length];
+        this.taskIds = new int[length];
+        for (int i = 0; i < length; i++) {
+            published[i] = -1;
+        }
+
+        this.sampleRates = new int[events.length];
+        for (Event event : events) {
+            this.sampleRates[event.ordinal()] = Math.max(1, sampleRates.getOrDefault(event.level, 1));
+        }
+
+        this.drainer = new Thread(this::drainLoop, "CustomPool-event-drainer");
+        this.drainer.setDaemon(true);
+        this.drainer.start();
+    }
+
+    void record(Event event, int queueIndex, Object task) {
+        if (!logger.isLoggable(event.level)) {
+            return;
+        }
+        int rate = sampleRates[event.ordinal()];
+        if (rate > 1 && ThreadLocalRandom.current().nextInt(rate) != 0) {
+            return;
+        }
+
+        long sequence;
+        do {
+            sequence = claimed.get();
+            if (sequence - consumed.get() > mask) {
+                dropped.increment();
+                return;
+            }
+        } while (!claimed.compareAndSet(sequence, sequence + 1));
+
+        int slot = (int) (sequence & mask);
+        types[slot] = event.ordinal();
+        threads[slot] = Thread.currentThread();
+        queueIndexes[slot] = queueIndex;
+        taskIds[slot] = System.identityHashCode(task);
+        PUBLISHED.setRelease(published, slot, sequence);
+    }
+
+    long droppedCount() {
+        return dropped.sum();
+    }
+
+    /**
+     * Останавливает фоновый поток, предварительно выписав все, что уже попало в буфер.
+     */
+    void close() {
+        running = false;
+        LockSupport.unpark(drainer);
+    }
+
+    private void drainLoop() {
+        long reportedDrops = 0;
+        while (running) {
+            LockSupport.parkNanos(this, DRAIN_INTERVAL_NANOS);
+            drain();
+
+            long drops = dropped.sum();
+            if (drops != reportedDrops) {
+                logger.warning(String.format("[Events] Dropped %d events, recorder is behind", drops - reportedDrops));
+                reportedDrops = drops;
+            }
+        }
+        drain();
+    }
+
+    private void drain() {
+        long sequence = consumed.get();
+        while (true) {
+            int slot = (int) (sequence & mask);
+            if ((long) PUBLISHED.getAcquire(published, slot) != sequence) {
+                break;
+            }
+
+            Event event = events[types[slot]];
+            Thread thread = threads[slot];
+            int queueIndex = queueIndexes[slot];
+            int taskId = taskIds[slot];
+            threads[slot] = null;
+            consumed.set(++sequence);
+
+            logger.log(event.level, format(event, thread, queueIndex, taskId));
+        }
+    }
+
+    private static String format(Event event, Thread thread, int queueIndex, int taskId) {
+        return switch (event) {
+            case TASK_ACCEPTED -> String.format("[Pool] Task accepted into queue #%d: task@%x", queueIndex, taskId);
+            case TASK_STARTED -> String.format("[Worker] %s р-р-р-работаем task@%x", thread.getName(), taskId);
+            case TASK_REJECTED -> String.format("[Rejected] Task task@%x was rejected due to overload!", taskId);
+        };
+    }
+}
@@ -0,0 +1,74 @@
+package org.example.threadpool;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Счетчики и гистограммы пула. Пишут в них воркеры и производители, читать можно из любого потока.
+ * Времена в гистограммах - в наносекундах.
+ */
+public class PoolMetrics {
+    // 5 бит точности (~3%) и потолок 2^40 нс (~18 минут)
+    private static final int PRECISION_BITS = 5;
+    private static final int MAX_VALUE_BITS = 40;
+
+    private final LongAdder completedTasks = new LongAdder();
+    private final LongAdder failedTasks = new LongAdder();
+    private final LongAdder rejectedTasks = new LongAdder();
+    private final LongAdder createdWorkers = new LongAdder();
+    private final LongAdder retiredWorkers = new LongAdder();
+    private final StripedHistogram queueWait = new StripedHistogram(PRECISION_BITS, MAX_VALUE_BITS);
+    private final StripedHistogram executionTime = new StripedHistogram(PRECISION_BITS, MAX_VALUE_BITS);
+
+    void taskCompleted(long queueWaitNanos, long executionNanos, boolean failed) {
+        queueWait.record(queueWaitNanos);
+        executionTime.record(executionNanos);
+        if (failed) {
+            failedTasks.increment();
+        } else {
+            completedTasks.increment();
+        }
+    }
+
+    void taskRejected() {
+        rejectedTasks.increment();
+    }
+
+    void workerCreated() {
+        createdWorkers.increment();
+    }
+
+    void workerRetired() {
+        retiredWorkers.increment();
+    }
+
+    public long getCompletedTaskCount() {
+        return completedTasks.sum();
+    }
+
+    public long getFailedTaskCount() {
+        return failedTasks.sum();
+    }
+
+    public long getRejectedTaskCount() {
+        return rejectedTasks.sum();
+    }
+
+    public long getCreatedWorkerCount() {
+        return createdWorkers.sum();
+    }
+
+    /**
+     * Воркеры, выведенные из пула по keepAliveTime или контроллером размера (не считая остановки пула).
+     */
+    public long getRetiredWorkerCount() {
+        return retiredWorkers.sum();
+    }
+
+    public HistogramSnapshot getQueueWaitSnapshot() {
+        return queueWait.snapshot();
+    }
+
+    public HistogramSnapshot getExecutionTimeSnapshot() {
+        return executionTime.snapshot();
+    }
+}
@@ -0,0 +1,119 @@
+package org.example.threadpool;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import java.util.logging.Logger;
+
+/**
+ * Фоновый контроллер размера пула. Раз в интервал смотрит на p90 ожидания в очереди за этот интервал,
+ * глубину очередей и загрузку воркеров.
+ * <p>
+ * Гистерезис: расти после нескольких перегруженных интервалов подряд, сжиматься после заметно
+ * большего числа спокойных. Если добавленный воркер не поднял пропускную способность
+ * (задачи упираются в CPU или во внешний ресурс), новые воркеры не добавляются какое-то время.
+ */
+class PoolSizeController {
+    private static final Logger logger = Logger.getLogger(PoolSizeController.class.getName());
+
+    private static final long INTERVAL_NANOS = TimeUnit.MILLISECONDS.toNanos(100);
+    private static final int GROW_AFTER = 2;
+    private static final int SHRINK_AFTER = 10;
+    private static final int INEFFECTIVE_GROWTH_COOLDOWN = 10;
+    private static final double MIN_GROWTH_GAIN = 1.05;
+
+    private final CustomThreadPool pool;
+    private final PoolMetrics metrics;
+    private final long targetQueueWaitNanos;
+    private final Thread thread;
+    private volatile boolean running = true;
+
+    private HistogramSnapshot previousWait;
+    private long previousCompleted;
+    private int overloadedStreak;
+    private int idleStreak;
+    private int cooldown;
+    private long throughputBeforeGrowth = -1;
+
+    PoolSizeController(CustomThreadPool pool, PoolMetrics metrics, long targetQueueWaitNanos) {
+        this.pool = pool;
+        this.metrics = metrics;
+        this.targetQueueWaitNanos = targetQueueWaitNanos;
+        this.thread = new Thread(this::loop, "CustomPool-size-controller");
+        this.thread.setDaemon(true);
+    }
+
+    void start() {
+        previousWait = metrics.getQueueWaitSnapshot();
+        thread.start();
+    }
+
+    void stop() {
+        running = false;
+        LockSupport.unpark(thread);
+    }
+
+    private void loop() {
+        while (running) {
+            LockSupport.parkNanos(this, INTERVAL_NANOS);
+            if (running) {
+                tick();
+            }
+        }
+    }
+
+    private void tick() {
+        HistogramSnapshot wait = metrics.getQueueWaitSnapshot();
+        HistogramSnapshot window = wait.since(previousWait);
+        previousWait = wait;
+
+        long completed = metrics.getCompletedTaskCount() + metrics.getFailedTaskCount();
+        long throughput = completed - previousCompleted;
+        previousCompleted = completed;
+
+        int size = pool.getPoolSize();
+        int active = pool.getActiveThreads();
+        int backlog = 0;
+        for (int depth : pool.getQueueDepths()) {
+            backlog += depth;
+        }
+        long waitP90 = window.getValueAtPercentile(90);
+
+        // Без завершений за интервал латентность не видна: задачи могут стоять за длинными соседями
+        boolean overloaded = waitP90 > targetQueueWaitNanos
+                || (window.getTotalCount() == 0 && backlog > 0 && active >= size);
+        boolean idle = waitP90 < targetQueueWaitNanos / 4 && backlog == 0 && active * 2 < size;
+
+        if (throughputBeforeGrowth >= 0) {
+            if (overloaded && throughput < throughputBeforeGrowth * MIN_GROWTH_GAIN) {
+                cooldown = INEFFECTIVE_GROWTH_COOLDOWN;
+            }
+            throughputBeforeGrowth = -1;
+        }
+        if (cooldown > 0) {
+            cooldown--;
+        }
+
+        if (overloaded) {
+            idleStreak = 0;
+            if (++overloadedStreak >= GROW_AFTER && cooldown == 0 && size < pool.getMaxPoolSize()) {
+                overloadedStreak = 0;
+                if (pool.addWorker()) {
+                    throughputBeforeGrowth = throughput;
+                    logger.info(String.format("[Controller] Grow to %d workers, queue wait p90 %d us",
+                            size + 1, waitP90 / 1_000));
+                }
+            }
+        } else if (idle) {
+            overloadedStreak = 0;
+            if (++idleStreak >= SHRINK_AFTER && size > pool.getCorePoolSize()) {
+                idleStreak = 0;
+                if (pool.retireOne()) {
+                    logger.info(String.format("[Controller] Shrink to %d workers", size - 1));
+                }
+            }
+        } else {
+            overloadedStreak = 0;
+            idleStreak = 0;
+        }
+    }
+}
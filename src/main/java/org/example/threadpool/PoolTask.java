@@ -0,0 +1,29 @@
+package org.example.threadpool;
+
+/**
+ * Задача в очереди воркера вместе с моментом постановки в очередь - из него считается время ожидания.
+ * deadline (в шкале System.nanoTime) учитывают только очереди {@link QueueType#DEADLINE}.
+ */
+class PoolTask implements Runnable {
+    final Runnable task;
+    final long enqueuedAt;
+    final long deadline;
+    // Порядковый номер вставки в DeadlineQueue: FIFO среди задач с одинаковым дедлайном
+    long sequence;
+
+    PoolTask(Runnable task, long enqueuedAt, long deadline) {
+        this.task = task;
+        this.enqueuedAt = enqueuedAt;
+        this.deadline = deadline;
+    }
+
+    @Override
+    public void run() {
+        task.run();
+    }
+
+    @Override
+    public String toString() {
+        return task.toString();
+    }
+}
@@ -0,0 +1,19 @@
+package org.example.threadpool;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+public class PowerOfTwoChoicesPlacement implements TaskPlacementStrategy {
+    @Override
+    public int selectQueue(int queueCount, QueueDepths depths) {
+        if (queueCount == 1) {
+            return 0;
+        }
+
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int first = random.nextInt(queueCount);
+        // Второй индекс всегда отличен от первого
+        int second = (first + 1 + random.nextInt(queueCount - 1)) % queueCount;
+
+        return depths.depthOf(second) < depths.depthOf(first) ? second : first;
+    }
+}
@@ -0,0 +1,63 @@
+package org.example.threadpool;
+
+import java.util.Arrays;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * Неизменяемый снимок очередей воркеров. Пул подменяет его целиком, когда воркер появляется
+ * или уходит, поэтому индекс, выбранный стратегией по снимку, всегда указывает на очередь из него же.
+ */
+class QueueSet implements TaskPlacementStrategy.QueueDepths {
+    static final QueueSet EMPTY = new QueueSet(newArray(0));
+
+    private final BlockingQueue<Runnable>[] queues;
+
+    private QueueSet(BlockingQueue<Runnable>[] queues) {
+        this.queues = queues;
+    }
+
+    int size() {
+        return queues.length;
+    }
+
+    BlockingQueue<Runnable> get(int index) {
+        return queues[index];
+    }
+
+    boolean contains(BlockingQueue<Runnable> queue) {
+        for (BlockingQueue<Runnable> q : queues) {
+            if (q == queue) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public int depthOf(int queueIndex) {
+        return queues[queueIndex].size();
+    }
+
+    QueueSet with(BlockingQueue<Runnable> queue) {
+        BlockingQueue<Runnable>[] copy = Arrays.copyOf(queues, queues.length + 1);
+        copy[queues.length] = queue;
+        return new QueueSet(copy);
+    }
+
+    QueueSet without(BlockingQueue<Runnable> queue) {
+        for (int i = 0; i < queues.length; i++) {
+            if (queues[i] == queue) {
+                BlockingQueue<Runnable>[] copy = newArray(queues.length - 1);
+                System.arraycopy(queues, 0, copy, 0, i);
+                System.arraycopy(queues, i + 1, copy, i, queues.length - i - 1);
+                return new QueueSet(copy);
+            }
+        }
+        return this;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static BlockingQueue<Runnable>[] newArray(int length) {
+        return (BlockingQueue<Runnable>[]) new BlockingQueue<?>[length];
+    }
+}
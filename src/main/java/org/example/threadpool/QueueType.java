@@ -0,0 +1,23 @@
+package org.example.threadpool;
+
+/**
+ * Реализация очереди, которую получает каждый воркер пула.
+ */
+public enum QueueType {
+    /**
+     * {@link java.util.concurrent.ArrayBlockingQueue}: один ReentrantLock на очередь.
+     */
+    ARRAY_BLOCKING,
+
+    /**
+     * Lock-free кольцевой буфер для многих производителей и одного потребителя.
+     * Не совместим с work-stealing: из очереди читает только ее воркер.
+     */
+    MPSC_RING,
+
+    /**
+     * Ограниченная очередь с приоритетом по ближайшему дедлайну (EDF), см. {@link TaskPriority}.
+     * При work-stealing соседи забирают самую срочную задачу.
+     */
+    DEADLINE
+}
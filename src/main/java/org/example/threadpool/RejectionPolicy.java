@@ -0,0 +1,113 @@
+package org.example.threadpool;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Что делать с задачей, если очередь выбранного воркера полна.
+ * Политики комбинируются через {@link #orElse}: если политика не смогла пристроить задачу,
+ * решает следующая, а если не смогла ни одна - execute бросает RejectedExecutionException.
+ */
+@FunctionalInterface
+public interface RejectionPolicy {
+    /**
+     * @param task       задача; политика может выполнить ее сама, а в очередь кладет только через context
+     * @param queueIndex индекс полной очереди
+     * @return true, если задача размещена или выполнена
+     */
+    boolean handle(Runnable task, int queueIndex, RejectionContext context);
+
+    default RejectionPolicy orElse(RejectionPolicy next) {
+        return (task, queueIndex, context) ->
+                handle(task, queueIndex, context) || next.handle(task, queueIndex, context);
+    }
+
+    /**
+     * Доступ политики к очередям пула. Все операции неблокирующие, кроме offer с таймаутом.
+     * Индексы относятся к тому же снимку очередей, по которому выбрана полная очередь.
+     * Класть можно только отклоненную задачу: пул хранит ее в своей обертке, поэтому offer
+     * не принимает задачу аргументом.
+     */
+    interface RejectionContext {
+        int queueCount();
+
+        boolean offer(int queueIndex);
+
+        boolean offer(int queueIndex, long timeout, TimeUnit unit);
+
+        /**
+         * Выбрасывает самую старую задачу очереди (она учитывается как отклоненная),
+         * а в очереди {@link QueueType#DEADLINE} - задачу с самым поздним дедлайном.
+         *
+         * @return false, если очередь пуста или не позволяет забирать задачи чужому потоку
+         */
+        boolean discardOldest(int queueIndex);
+
+        /**
+         * @return false, если общей очереди переполнения нет или она полна
+         */
+        boolean offerOverflow();
+    }
+
+    /**
+     * Сразу отклонить.
+     */
+    static RejectionPolicy failFast() {
+        return (task, queueIndex, context) -> false;
+    }
+
+    /**
+     * Положить в любую другую очередь, где есть место. Политика по умолчанию.
+     */
+    static RejectionPolicy retryOtherQueues() {
+        return (task, queueIndex, context) -> {
+            int count = context.queueCount();
+            if (count <= 0) {
+                return false;
+            }
+            int start = ThreadLocalRandom.current().nextInt(count);
+            for (int i = 0; i < count; i++) {
+                int index = (start + i) % count;
+                if (index != queueIndex && context.offer(index)) {
+                    return true;
+                }
+            }
+            return false;
+        };
+    }
+
+    /**
+     * Выполнить задачу в потоке, который ее отправил: естественное торможение производителя.
+     */
+    static RejectionPolicy callerRuns() {
+        return (task, queueIndex, context) -> {
+            task.run();
+            return true;
+        };
+    }
+
+    /**
+     * Освободить место, выбросив самую старую задачу той же очереди. Не работает с MPSC_RING.
+     * В очереди {@link QueueType#DEADLINE} голова - самая срочная задача, поэтому там выбрасывается
+     * задача с самым поздним дедлайном (при равных приоритетах - самая новая).
+     */
+    static RejectionPolicy discardOldest() {
+        return (task, queueIndex, context) ->
+                context.discardOldest(queueIndex) && context.offer(queueIndex);
+    }
+
+    /**
+     * Переложить в общую очередь переполнения, которую разбирают все воркеры.
+     * Нужна {@link CustomThreadPool.Builder#overflowQueueSize(int)}.
+     */
+    static RejectionPolicy spillToOverflow() {
+        return (task, queueIndex, context) -> context.offerOverflow();
+    }
+
+    /**
+     * Прежнее поведение: ждать места в той же очереди до таймаута.
+     */
+    static RejectionPolicy block(long timeout, TimeUnit unit) {
+        return (task, queueIndex, context) -> context.offer(queueIndex, timeout, unit);
+    }
+}
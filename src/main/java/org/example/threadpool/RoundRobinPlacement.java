@@ -0,0 +1,13 @@
+package org.example.threadpool;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class RoundRobinPlacement implements TaskPlacementStrategy {
+    private final AtomicInteger nextQueueIndex = new AtomicInteger(0);
+
+    @Override
+    public int selectQueue(int queueCount, QueueDepths depths) {
+        // Маска вместо остатка от отрицательного числа после переполнения счетчика
+        return (nextQueueIndex.getAndIncrement() & Integer.MAX_VALUE) % queueCount;
+    }
+}
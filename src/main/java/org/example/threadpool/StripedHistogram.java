@@ -0,0 +1,104 @@
+package org.example.threadpool;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Лог-линейная гистограмма в духе HdrHistogram: каждая степень двойки делится на 2^precisionBits
+ * равных корзин, поэтому относительная погрешность не больше 2^-(precisionBits-1).
+ * <p>
+ * Запись раскидана по полосам (stripes) по id потока: разные потоки почти не пишут
+ * в одни и те же ячейки, а снимок просто суммирует полосы.
+ */
+public class StripedHistogram {
+    private final int precisionBits;
+    private final int subBucketCount;
+    private final int halfCount;
+    private final long maxValue;
+    private final int bucketCount;
+    private final AtomicLongArray[] stripes;
+    private final int stripeMask;
+
+    /**
+     * @param precisionBits точность, 5 дает ~3% погрешности, 7 - меньше 1%
+     * @param maxValueBits  значения больше 2^maxValueBits - 1 попадают в последнюю корзину
+     */
+    public StripedHistogram(int precisionBits, int maxValueBits) {
+        if (precisionBits < 2 || maxValueBits <= precisionBits || maxValueBits > 62) {
+            throw new IllegalArgumentException("Invalid histogram precision");
+        }
+        this.precisionBits = precisionBits;
+        this.subBucketCount = 1 << precisionBits;
+        this.halfCount = subBucketCount >> 1;
+        this.maxValue = (1L << maxValueBits) - 1;
+        this.bucketCount = bucketIndex(maxValue) + 1;
+
+        int stripeCount = Integer.highestOneBit(Runtime.getRuntime().availableProcessors() * 2);
+        this.stripes = new AtomicLongArray[Math.min(stripeCount, 64)];
+        this.stripeMask = stripes.length - 1;
+        for (int i = 0; i < stripes.length; i++) {
+            stripes[i] = new AtomicLongArray(bucketCount);
+        }
+    }
+
+    public void record(long value) {
+        record(value, 1);
+    }
+
+    public void record(long value, long count) {
+        int stripe = (int) (Thread.currentThread().threadId() & stripeMask);
+        stripes[stripe].getAndAdd(bucketIndex(Math.min(Math.max(value, 0), maxValue)), count);
+    }
+
+    public HistogramSnapshot snapshot() {
+        long[] counts = new long[bucketCount];
+        for (AtomicLongArray stripe : stripes) {
+            for (int i = 0; i < bucketCount; i++) {
+                counts[i] += stripe.get(i);
+            }
+        }
+        return new HistogramSnapshot(this, counts);
+    }
+
+    public void reset() {
+        for (AtomicLongArray stripe : stripes) {
+            for (int i = 0; i < bucketCount; i++) {
+                stripe.set(i, 0);
+            }
+        }
+    }
+
+    private int bucketIndex(long value) {
+        if (value < subBucketCount) {
+            return (int) value;
+        }
+        int shift = 63 - Long.numberOfLeadingZeros(value) - precisionBits + 1;
+        int top = (int) (value >>> shift);
+        return subBucketCount + (shift - 1) * halfCount + (top - halfCount);
+    }
+
+    /**
+     * Наибольшее значение, которое попадает в корзину с этим индексом.
+     */
+    long highestValueOf(int index) {
+        if (index < subBucketCount) {
+            return index;
+        }
+        int k = index - subBucketCount;
+        int shift = k / halfCount + 1;
+        long top = k % halfCount + halfCount;
+        return ((top + 1) << shift) - 1;
+    }
+
+    /**
+     * Середина корзины - для оценки среднего.
+     */
+    long medianValueOf(int index) {
+        if (index < subBucketCount) {
+            return index;
+        }
+        int k = index - subBucketCount;
+        int shift = k / halfCount + 1;
+        long top = k % halfCount + halfCount;
+        return (top << shift) + (1L << (shift - 1));
+    }
+}
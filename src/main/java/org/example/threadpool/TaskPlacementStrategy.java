@@ -0,0 +1,42 @@
+package org.example.threadpool;
+
+/**
+ * Выбирает, в очередь какого воркера положить очередную задачу.
+ * Вызывается на каждом execute из потоков-производителей, поэтому реализация
+ * должна быть потокобезопасной и по возможности не писать в общее состояние.
+ */
+@FunctionalInterface
+public interface TaskPlacementStrategy {
+    /**
+     * @param queueCount число очередей воркеров, всегда больше 0
+     * @param depths     текущая глубина очереди по ее индексу (оценка, без блокировок для MPSC_RING)
+     * @return индекс очереди в диапазоне [0, queueCount)
+     */
+    int selectQueue(int queueCount, QueueDepths depths);
+
+    @FunctionalInterface
+    interface QueueDepths {
+        int depthOf(int queueIndex);
+    }
+
+    /**
+     * Очереди по кругу, без учета загрузки. Поведение пула по умолчанию.
+     */
+    static TaskPlacementStrategy roundRobin() {
+        return new RoundRobinPlacement();
+    }
+
+    /**
+     * Самая короткая очередь. Опрашивает все очереди, подходит для небольшого числа воркеров.
+     */
+    static TaskPlacementStrategy leastLoaded() {
+        return new LeastLoadedPlacement();
+    }
+
+    /**
+     * Меньшая из двух случайных очередей: почти как least-loaded, но за O(1).
+     */
+    static TaskPlacementStrategy powerOfTwoChoices() {
+        return new PowerOfTwoChoicesPlacement();
+    }
+}
@@ -0,0 +1,13 @@
+package org.example.threadpool;
+
+/**
+ * Приоритет задачи для очередей {@link QueueType#DEADLINE}.
+ * Приоритет превращается в виртуальный дедлайн: момент постановки плюс ordinal() шагов старения
+ * ({@link CustomThreadPool.Builder#priorityAging}). Поэтому задача LOW ждет дольше задачи HIGH,
+ * поставленной в то же время, не больше чем на два шага и не голодает под потоком срочных задач.
+ */
+public enum TaskPriority {
+    HIGH,
+    NORMAL,
+    LOW
+}
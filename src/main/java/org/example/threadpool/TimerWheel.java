@@ -0,0 +1,293 @@
+package org.example.threadpool;
+
+import java.util.Queue;
+import java.util.concurrent.*;
+import java.util.concurrent.locks.LockSupport;
+import java.util.logging.Logger;
+
+/**
+ * Хешированное колесо таймеров (в духе Varghese-Lauck и HashedWheelTimer из Netty).
+ * Колесо - массив корзин по тику; таймер дальше одного оборота лежит в корзине со счетчиком оборотов.
+ * <p>
+ * Корзины трогает только поток колеса, поэтому вставка и отмена - это O(1) добавление
+ * в lock-free очередь, без кучи и без общего лока. Раз в тик поток переносит новые таймеры в корзины,
+ * выкидывает отмененные и отдает сработавшие в executor, то есть прямо в очереди воркеров.
+ * Executor не должен выполнять задачу в вызывающем потоке или блокировать его: поток колеса один,
+ * и любая задержка в нем задерживает все таймеры. Пул поэтому отдает сюда {@code dispatch},
+ * минуя политику отказа; если места в очередях нет, таймер переносится на следующий тик.
+ * Таймер срабатывает не раньше дедлайна и, если в очередях пула есть место, не позже чем через тик после него
+ * (плюс ожидание в очереди).
+ */
+class TimerWheel {
+    private static final Logger logger = Logger.getLogger(TimerWheel.class.getName());
+
+    // Не даем огромной пачке новых таймеров задержать срабатывание текущих
+    private static final int MAX_TRANSFERS_PER_TICK = 100_000;
+
+    private final Executor executor;
+    private final long tickNanos;
+    private final Bucket[] wheel;
+    private final int mask;
+    private final Queue<Timer<?>> pending = new ConcurrentLinkedQueue<>();
+    private final Queue<Timer<?>> cancelled = new ConcurrentLinkedQueue<>();
+    private final Thread thread;
+    private volatile boolean running = true;
+
+    private final long startTime;
+    private long tick;
+
+    TimerWheel(Executor executor, long tickNanos, int wheelSize) {
+        if (tickNanos <= 0 || wheelSize < 1) {
+            throw new IllegalArgumentException("Invalid timer wheel configuration");
+        }
+        int length = 1 << (32 - Integer.numberOfLeadingZeros(Math.max(wheelSize, 2) - 1));
+        this.executor = executor;
+        this.tickNanos = tickNanos;
+        this.wheel = new Bucket[length];
+        this.mask = length - 1;
+        for (int i = 0; i < length; i++) {
+            wheel[i] = new Bucket();
+        }
+
+        this.startTime = System.nanoTime();
+        this.thread = new Thread(this::loop, "CustomPool-timer");
+        this.thread.setDaemon(true);
+        this.thread.start();
+    }
+
+    <V> ScheduledFuture<V> schedule(Callable<V> task, long delay, TimeUnit unit) {
+        return add(new Timer<>(this, task, deadlineAfter(delay, unit), 0));
+    }
+
+    ScheduledFuture<?> schedule(Runnable task, long delay, TimeUnit unit) {
+        return add(new Timer<Void>(this, Executors.callable(task, null), deadlineAfter(delay, unit), 0));
+    }
+
+    ScheduledFuture<?> scheduleAtFixedRate(Runnable task, long initialDelay, long period, TimeUnit unit) {
+        if (period <= 0) {
+            throw new IllegalArgumentException("Period must be positive");
+        }
+        return add(new Timer<Void>(this, Executors.callable(task, null),
+                deadlineAfter(initialDelay, unit), unit.toNanos(period)));
+    }
+
+    /**
+     * Останавливает поток колеса. Несработавшие таймеры отменяются.
+     */
+    void stop() {
+        running = false;
+        LockSupport.unpark(thread);
+    }
+
+    private static long deadlineAfter(long delay, TimeUnit unit) {
+        return System.nanoTime() + Math.max(0, unit.toNanos(delay));
+    }
+
+    private <V> Timer<V> add(Timer<V> timer) {
+        if (!running || !enqueue(timer)) {
+            throw new RejectedExecutionException("Timer is stopped");
+        }
+        return timer;
+    }
+
+    /**
+     * Кладет таймер в pending. Если stop() успел проскочить между проверкой running и вставкой,
+     * поток колеса мог уже разобрать pending и выйти - тогда таймер отменяем сами.
+     */
+    private boolean enqueue(Timer<?> timer) {
+        pending.add(timer);
+        if (running) {
+            return true;
+        }
+        pending.remove(timer);
+        timer.cancel(false);
+        return false;
+    }
+
+    private void loop() {
+        while (running) {
+            long tickEnd = startTime + (tick + 1) * tickNanos;
+            long sleep;
+            while (running && (sleep = tickEnd - System.nanoTime()) > 0) {
+                LockSupport.parkNanos(this, sleep);
+            }
+            if (!running) {
+                break;
+            }
+
+            removeCancelled();
+            transferPending();
+            wheel[(int) (tick & mask)].expire(tickEnd);
+            tick++;
+        }
+
+        for (Bucket bucket : wheel) {
+            bucket.cancelAll();
+        }
+        Timer<?> timer;
+        while ((timer = pending.poll()) != null) {
+            timer.cancel(false);
+        }
+    }
+
+    private void transferPending() {
+        for (int i = 0; i < MAX_TRANSFERS_PER_TICK; i++) {
+            Timer<?> timer = pending.poll();
+            if (timer == null) {
+                return;
+            }
+            if (timer.isCancelled()) {
+                continue;
+            }
+
+            long calculatedTick = (timer.deadline - startTime) / tickNanos;
+            timer.remainingRounds = (calculatedTick - tick) / wheel.length;
+            // Опоздавший таймер кладем в текущую корзину, он сработает в этот же тик
+            long ticks = Math.max(calculatedTick, tick);
+            wheel[(int) (ticks & mask)].add(timer);
+        }
+    }
+
+    private void removeCancelled() {
+        Timer<?> timer;
+        while ((timer = cancelled.poll()) != null) {
+            if (timer.bucket != null) {
+                timer.bucket.remove(timer);
+            }
+        }
+    }
+
+    private void fire(Timer<?> timer) {
+        try {
+            executor.execute(timer);
+        } catch (RejectedExecutionException e) {
+            // Очереди заполнены ненадолго: отменять таймер нельзя, периодический так умер бы навсегда.
+            // Пробуем снова на следующем тике
+            logger.warning(String.format("[Timer] Expired task %s was rejected, retrying next tick: %s",
+                    timer.task, e.getMessage()));
+            timer.remainingRounds = 0;
+            wheel[(int) ((tick + 1) & mask)].add(timer);
+        }
+    }
+
+    /**
+     * Двусвязный список таймеров одной ячейки колеса. Доступ только из потока колеса.
+     */
+    private final class Bucket {
+        private Timer<?> head;
+        private Timer<?> tail;
+
+        void add(Timer<?> timer) {
+            timer.bucket = this;
+            if (head == null) {
+                head = tail = timer;
+            } else {
+                tail.next = timer;
+                timer.prev = tail;
+                tail = timer;
+            }
+        }
+
+        void remove(Timer<?> timer) {
+            if (timer.prev != null) {
+                timer.prev.next = timer.next;
+            } else {
+                head = timer.next;
+            }
+            if (timer.next != null) {
+                timer.next.prev = timer.prev;
+            } else {
+                tail = timer.prev;
+            }
+            timer.prev = null;
+            timer.next = null;
+            timer.bucket = null;
+        }
+
+        void expire(long now) {
+            Timer<?> timer = head;
+            while (timer != null) {
+                Timer<?> next = timer.next;
+                if (timer.remainingRounds <= 0 && timer.deadline - now <= 0) {
+                    remove(timer);
+                    if (!timer.isCancelled()) {
+                        fire(timer);
+                    }
+                } else if (timer.isCancelled()) {
+                    remove(timer);
+                } else {
+                    timer.remainingRounds--;
+                }
+                timer = next;
+            }
+        }
+
+        void cancelAll() {
+            Timer<?> timer = head;
+            while (timer != null) {
+                Timer<?> next = timer.next;
+                remove(timer);
+                timer.cancel(false);
+                timer = next;
+            }
+        }
+    }
+
+    /**
+     * Таймер - это сразу и задача для воркера, и ScheduledFuture для вызывающего.
+     * Периодический таймер после каждого успешного запуска возвращается в колесо через pending.
+     */
+    static final class Timer<V> extends FutureTask<V> implements ScheduledFuture<V> {
+        private final TimerWheel owner;
+        private final Object task;
+        private final long period;
+        private volatile long deadline;
+
+        // Поля ниже трогает только поток колеса
+        private long remainingRounds;
+        private Bucket bucket;
+        private Timer<?> prev;
+        private Timer<?> next;
+
+        Timer(TimerWheel owner, Callable<V> task, long deadline, long period) {
+            super(task);
+            this.owner = owner;
+            this.task = task;
+            this.deadline = deadline;
+            this.period = period;
+        }
+
+        @Override
+        public void run() {
+            if (period == 0) {
+                super.run();
+            } else if (runAndReset() && owner.running) {
+                // Фиксированная частота: следующий дедлайн считается от прошлого, а не от конца запуска
+                deadline += period;
+                owner.enqueue(this);
+            }
+        }
+
+        @Override
+        public boolean cancel(boolean mayInterruptIfRunning) {
+            boolean result = super.cancel(mayInterruptIfRunning);
+            if (result && owner.running) {
+                owner.cancelled.add(this);
+            }
+            return result;
+        }
+
+        @Override
+        public long getDelay(TimeUnit unit) {
+            return unit.convert(deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+        }
+
+        @Override
+        public int compareTo(Delayed other) {
+            if (other == this) {
+                return 0;
+            }
+            return Long.compare(getDelay(TimeUnit.NANOSECONDS), other.getDelay(TimeUnit.NANOSECONDS));
+        }
+    }
+}
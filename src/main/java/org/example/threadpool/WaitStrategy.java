@@ -0,0 +1,28 @@
+package org.example.threadpool;
+
+/**
+ * Как простаивающий воркер ждет задачу. Чем активнее ожидание, тем меньше задержка передачи задачи
+ * и тем больше CPU сжигает пустой пул: ядро на воркера при BUSY_SPIN.
+ */
+public enum WaitStrategy {
+    /**
+     * Блокирующий poll очереди: производитель будит воркер через park/unpark. По умолчанию.
+     */
+    BLOCKING,
+
+    /**
+     * Крутиться в цикле с Thread.onSpinWait(). Минимальная задержка, воркер всегда занимает ядро.
+     */
+    BUSY_SPIN,
+
+    /**
+     * Немного покрутиться, потом отдавать квант через Thread.yield().
+     */
+    SPIN_YIELD,
+
+    /**
+     * Покрутиться, поуступать квант, потом парковаться с удвоением паузы от 1 мкс до 1 мс.
+     * Производитель воркер не будит: после долгого простоя задержка передачи - до 1 мс.
+     */
+    SPIN_PARK
+}
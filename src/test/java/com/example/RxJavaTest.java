@@ -1,17 +1,31 @@
 package com.example;
 
 
+import org.example.rxjava.core.BackpressureStrategy;
+import org.example.rxjava.core.Disposable;
+import org.example.rxjava.core.Flowable;
 import org.example.rxjava.core.Observable;
 import org.example.rxjava.core.Observer;
+import org.example.rxjava.scheduler.ComputationScheduler;
+import org.example.rxjava.scheduler.Scheduler;
 import org.example.rxjava.scheduler.Schedulers;
+import org.example.rxjava.scheduler.Worker;
 import org.junit.Test;
 
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Flow;
+import java.util.concurrent.SubmissionPublisher;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.LockSupport;
 
 import static org.junit.Assert.*;
 
@@ -240,4 +254,793 @@ public class RxJavaTest {
 
         assertTrue(latch.await(1, TimeUnit.SECONDS));
     }
-} 
\ No newline at end of file
+
+    /**
+     * Обратное давление
+     */
+    @Test
+    public void testFlowableBackpressure() throws InterruptedException {
+        CountDownLatch latch = new CountDownLatch(1);
+        List<Integer> results = new ArrayList<>();
+        AtomicLong maxRequestedAhead = new AtomicLong();
+
+        // Быстрый источник, медленный подписчик по одному элементу: источник не уходит дальше prefetch
+        AtomicLong produced = new AtomicLong();
+        Flowable.range(0, 1_000)
+                .map(i -> {
+                    produced.incrementAndGet();
+                    return i * 2;
+                })
+                .observeOn(Schedulers.COMPUTATION, 16)
+                .filter(i -> i % 4 == 0)
+                .subscribe(new Flow.Subscriber<Integer>() {
+                    private Flow.Subscription subscription;
+
+                    @Override
+                    public void onSubscribe(Flow.Subscription subscription) {
+                        this.subscription = subscription;
+                        subscription.request(1);
+                    }
+
+                    @Override
+                    public void onNext(Integer item) {
+                        maxRequestedAhead.accumulateAndGet(produced.get() - item / 2, Math::max);
+                        results.add(item);
+                        subscription.request(1);
+                    }
+
+                    @Override
+                    public void onError(Throwable t) {
+                        fail("Не должно быть ошибок");
+                    }
+
+                    @Override
+                    public void onComplete() {
+                        latch.countDown();
+                    }
+                });
+
+        assertTrue(latch.await(5, TimeUnit.SECONDS));
+        assertEquals(500, results.size());
+        assertEquals(1996, (int) results.get(499));
+        assertTrue(maxRequestedAhead.get() <= 16 + 1);
+
+        // Источник без спроса: ERROR завершает поток ошибкой, а не копит элементы
+        AtomicInteger errors = new AtomicInteger();
+        Flowable.<Integer>create(emitter -> {
+            for (int i = 0; i < 10; i++) {
+                emitter.onNext(i);
+            }
+            emitter.onComplete();
+        }, BackpressureStrategy.ERROR).subscribe(new Flow.Subscriber<Integer>() {
+            @Override
+            public void onSubscribe(Flow.Subscription subscription) {
+                subscription.request(3);
+            }
+
+            @Override
+            public void onNext(Integer item) {
+            }
+
+            @Override
+            public void onError(Throwable t) {
+                errors.incrementAndGet();
+            }
+
+            @Override
+            public void onComplete() {
+                fail("Не должно быть завершения");
+            }
+        });
+        assertEquals(1, errors.get());
+    }
+
+    @Test
+    public void testFlowInterop() throws InterruptedException {
+        CountDownLatch latch = new CountDownLatch(1);
+        List<String> results = new ArrayList<>();
+
+        try (SubmissionPublisher<Integer> publisher = new SubmissionPublisher<>()) {
+            Flowable.fromPublisher(publisher)
+                    .map(i -> "Flow " + i)
+                    .subscribe(new Flow.Subscriber<>() {
+                        @Override
+                        public void onSubscribe(Flow.Subscription subscription) {
+                            subscription.request(Long.MAX_VALUE);
+                        }
+
+                        @Override
+                        public void onNext(String item) {
+                            results.add(item);
+                        }
+
+                        @Override
+                        public void onError(Throwable t) {
+                            fail("Не должно быть ошибок");
+                        }
+
+                        @Override
+                        public void onComplete() {
+                            latch.countDown();
+                        }
+                    });
+            publisher.submit(1);
+            publisher.submit(2);
+        }
+
+        assertTrue(latch.await(1, TimeUnit.SECONDS));
+        assertEquals(Arrays.asList("Flow 1", "Flow 2"), results);
+    }
+
+    @Test
+    public void testDisposePropagation() throws InterruptedException {
+        CountDownLatch sourceStopped = new CountDownLatch(1);
+        AtomicInteger emitted = new AtomicInteger();
+        AtomicInteger received = new AtomicInteger();
+
+        Disposable subscription = Observable.<Integer>createEmitter(emitter -> {
+                    while (!emitter.isDisposed()) {
+                        emitter.onNext(emitted.incrementAndGet());
+                    }
+                    sourceStopped.countDown();
+                })
+                .subscribeOn(Schedulers.IO)
+                .map(i -> i * 2)
+                .filter(i -> i > 0)
+                .subscribe(new Observer<>() {
+                    private Disposable upstream;
+
+                    @Override
+                    public void onSubscribe(Disposable d) {
+                        upstream = d;
+                    }
+
+                    @Override
+                    public void onNext(Integer item) {
+                        if (received.incrementAndGet() == 5) {
+                            upstream.dispose();
+                        }
+                    }
+
+                    @Override
+                    public void onError(Throwable t) {
+                        fail("Не должно быть ошибок");
+                    }
+
+                    @Override
+                    public void onComplete() {
+                        fail("Не должно быть завершения");
+                    }
+                });
+
+        assertTrue(sourceStopped.await(1, TimeUnit.SECONDS));
+        assertTrue(subscription.isDisposed());
+        assertEquals(5, received.get());
+        assertEquals(5, emitted.get());
+    }
+
+    @Test
+    public void testOperatorFusion() {
+        List<String> results = new ArrayList<>();
+        AtomicInteger errors = new AtomicInteger();
+
+        Observable<Integer> source = Observable.create((Observer<Integer> observer) -> {
+            for (int i = 1; i <= 10; i++) {
+                observer.onNext(i);
+            }
+            observer.onComplete();
+        });
+        Observable<Integer> evens = source.filter(i -> i % 2 == 0);
+        // Склеенная цепочка не должна менять ни порядок стадий, ни исходный Observable
+        evens.map(i -> i * 10)
+                .filter(i -> i > 20)
+                .map(i -> i + 1)
+                .map(i -> "Value " + i)
+                .subscribe(new Observer<>() {
+                    @Override
+                    public void onNext(String item) {
+                        results.add(item);
+                    }
+
+                    @Override
+                    public void onError(Throwable t) {
+                        fail("Не должно быть ошибок");
+                    }
+
+                    @Override
+                    public void onComplete() {
+                        results.add("done");
+                    }
+                });
+        assertEquals(Arrays.asList("Value 41", "Value 61", "Value 81", "Value 101", "done"), results);
+
+        evens.map(i -> 10 / (i - 4))
+                .subscribe(new Observer<>() {
+                    @Override
+                    public void onNext(Integer item) {
+                    }
+
+                    @Override
+                    public void onError(Throwable t) {
+                        assertTrue(t instanceof ArithmeticException);
+                        errors.incrementAndGet();
+                    }
+
+                    @Override
+                    public void onComplete() {
+                        fail("Не должно быть завершения");
+                    }
+                });
+        assertEquals(1, errors.get());
+    }
+
+    @Test
+    public void testObserveOnOrdering() throws InterruptedException {
+        int count = 10_000;
+        CountDownLatch latch = new CountDownLatch(1);
+        List<Integer> results = new ArrayList<>();
+
+        Observable.create((Observer<Integer> observer) -> {
+                    for (int i = 0; i < count; i++) {
+                        observer.onNext(i);
+                    }
+                    observer.onComplete();
+                })
+                .subscribeOn(Schedulers.IO)
+                .observeOn(Schedulers.COMPUTATION, 16)
+                .subscribe(new Observer<>() {
+                    @Override
+                    public void onNext(Integer item) {
+                        results.add(item);
+                    }
+
+                    @Override
+                    public void onError(Throwable t) {
+                        fail("Не должно быть ошибок");
+                    }
+
+                    @Override
+                    public void onComplete() {
+                        latch.countDown();
+                    }
+                });
+
+        assertTrue(latch.await(5, TimeUnit.SECONDS));
+        assertEquals(count, results.size());
+        for (int i = 0; i < count; i++) {
+            assertEquals(i, (int) results.get(i));
+        }
+    }
+
+    @Test
+    public void testSchedulerLifecycle() throws InterruptedException {
+        Scheduler scheduler = new ComputationScheduler(2);
+        try {
+            Worker disposed = scheduler.createWorker();
+            disposed.execute(() -> {
+            });
+            disposed.dispose();
+
+            // Отмена одного worker не должна останавливать планировщик
+            Worker worker = scheduler.createWorker();
+            Set<Thread> threads = ConcurrentHashMap.newKeySet();
+            List<Integer> order = new ArrayList<>();
+            CountDownLatch latch = new CountDownLatch(100);
+            for (int i = 0; i < 100; i++) {
+                int index = i;
+                worker.execute(() -> {
+                    threads.add(Thread.currentThread());
+                    order.add(index);
+                    latch.countDown();
+                });
+            }
+            assertTrue(latch.await(1, TimeUnit.SECONDS));
+            assertEquals(1, threads.size());
+            for (int i = 0; i < 100; i++) {
+                assertEquals(i, (int) order.get(i));
+            }
+
+            // После остановки планировщик запускается заново при следующем обращении
+            scheduler.shutdown();
+            CountDownLatch restarted = new CountDownLatch(1);
+            scheduler.createWorker().execute(restarted::countDown);
+            assertTrue(restarted.await(1, TimeUnit.SECONDS));
+        } finally {
+            scheduler.shutdown();
+        }
+    }
+
+    @Test
+    public void testVirtualScheduler() throws InterruptedException {
+        int subscriptions = 1_000;
+        CountDownLatch latch = new CountDownLatch(subscriptions);
+        AtomicInteger virtual = new AtomicInteger();
+
+        // Тысяча блокирующих источников одновременно: на платформенных потоках это тысяча потоков
+        for (int i = 0; i < subscriptions; i++) {
+            Observable.create((Observer<Integer> observer) -> {
+                        if (Thread.currentThread().isVirtual()) {
+                            virtual.incrementAndGet();
+                        }
+                        LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(100));
+                        observer.onNext(1);
+                        observer.onComplete();
+                    })
+                    .subscribeOn(Schedulers.VIRTUAL)
+                    .subscribe(new Observer<>() {
+                        @Override
+                        public void onNext(Integer item) {
+                        }
+
+                        @Override
+                        public void onError(Throwable t) {
+                            fail("Не должно быть ошибок");
+                        }
+
+                        @Override
+                        public void onComplete() {
+                            latch.countDown();
+                        }
+                    });
+        }
+        assertTrue(latch.await(5, TimeUnit.SECONDS));
+        assertEquals(subscriptions, virtual.get());
+
+        Worker worker = Schedulers.VIRTUAL.createWorker();
+        List<Integer> order = new ArrayList<>();
+        CountDownLatch done = new CountDownLatch(100);
+        for (int i = 0; i < 100; i++) {
+            int index = i;
+            worker.execute(() -> {
+                order.add(index);
+                done.countDown();
+            });
+        }
+        assertTrue(done.await(1, TimeUnit.SECONDS));
+        for (int i = 0; i < 100; i++) {
+            assertEquals(i, (int) order.get(i));
+        }
+        worker.dispose();
+    }
+
+    @Test
+    public void testFlatMapConcurrency() throws InterruptedException {
+        int sources = 20;
+        int maxConcurrency = 4;
+        CountDownLatch latch = new CountDownLatch(1);
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger maxRunning = new AtomicInteger();
+        AtomicInteger inOnNext = new AtomicInteger();
+        AtomicInteger overlaps = new AtomicInteger();
+        AtomicInteger completedWith = new AtomicInteger(-1);
+        List<Integer> results = new ArrayList<>();
+
+        Observable.create((Observer<Integer> observer) -> {
+                    for (int i = 0; i < sources; i++) {
+                        observer.onNext(i);
+                    }
+                    observer.onComplete();
+                })
+                .flatMap(i -> Observable.create((Observer<Integer> observer) -> {
+                    maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+                    for (int j = 0; j < 3; j++) {
+                        LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(2));
+                        observer.onNext(i * 10 + j);
+                    }
+                    running.decrementAndGet();
+                    observer.onComplete();
+                }).subscribeOn(Schedulers.IO), maxConcurrency)
+                .subscribe(new Observer<>() {
+                    @Override
+                    public void onNext(Integer item) {
+                        if (inOnNext.incrementAndGet() != 1) {
+                            overlaps.incrementAndGet();
+                        }
+                        results.add(item);
+                        inOnNext.decrementAndGet();
+                    }
+
+                    @Override
+                    public void onError(Throwable t) {
+                        fail("Не должно быть ошибок");
+                    }
+
+                    @Override
+                    public void onComplete() {
+                        completedWith.set(results.size());
+                        latch.countDown();
+                    }
+                });
+
+        assertTrue(latch.await(5, TimeUnit.SECONDS));
+        // Завершение только после всех внутренних источников
+        assertEquals(sources * 3, completedWith.get());
+        assertEquals(0, overlaps.get());
+        assertTrue(maxRunning.get() <= maxConcurrency);
+    }
+
+    @Test
+    public void testBuffering() throws InterruptedException {
+        Observable<Integer> source = Observable.create((Observer<Integer> observer) -> {
+            for (int i = 1; i <= 7; i++) {
+                observer.onNext(i);
+            }
+            observer.onComplete();
+        });
+
+        List<List<Integer>> batches = new ArrayList<>();
+        source.buffer(3).subscribe(new Observer<>() {
+            @Override
+            public void onNext(List<Integer> item) {
+                batches.add(item);
+            }
+
+            @Override
+            public void onError(Throwable t) {
+                fail("Не должно быть ошибок");
+            }
+
+            @Override
+            public void onComplete() {
+            }
+        });
+        assertEquals(Arrays.asList(List.of(1, 2, 3), List.of(4, 5, 6), List.of(7)), batches);
+
+        List<List<Integer>> windows = new ArrayList<>();
+        source.window(2).subscribe(new Observer<>() {
+            @Override
+            public void onNext(Observable<Integer> window) {
+                List<Integer> items = new ArrayList<>();
+                windows.add(items);
+                window.subscribe(new Observer<>() {
+                    @Override
+                    public void onNext(Integer item) {
+                        items.add(item);
+                    }
+
+                    @Override
+                    public void onError(Throwable t) {
+                        fail("Не должно быть ошибок");
+                    }
+
+                    @Override
+                    public void onComplete() {
+                    }
+                });
+            }
+
+            @Override
+            public void onError(Throwable t) {
+                fail("Не должно быть ошибок");
+            }
+
+            @Override
+            public void onComplete() {
+            }
+        });
+        assertEquals(Arrays.asList(List.of(1, 2), List.of(3, 4), List.of(5, 6), List.of(7)), windows);
+
+        // Пачка по времени уходит, не дожидаясь count, и пустые отрезки пачек не дают
+        CountDownLatch latch = new CountDownLatch(1);
+        List<List<Integer>> timed = new ArrayList<>();
+        Observable.create((Observer<Integer> observer) -> {
+                    for (int i = 1; i <= 5; i++) {
+                        observer.onNext(i);
+                    }
+                    LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(300));
+                    observer.onNext(6);
+                    observer.onNext(7);
+                    observer.onComplete();
+                })
+                .subscribeOn(Schedulers.IO)
+                .bufferTimeout(100, 50, TimeUnit.MILLISECONDS)
+                .subscribe(new Observer<>() {
+                    @Override
+                    public void onNext(List<Integer> item) {
+                        synchronized (timed) {
+                            timed.add(item);
+                        }
+                    }
+
+                    @Override
+                    public void onError(Throwable t) {
+                        fail("Не должно быть ошибок");
+                    }
+
+                    @Override
+                    public void onComplete() {
+                        latch.countDown();
+                    }
+                });
+        assertTrue(latch.await(2, TimeUnit.SECONDS));
+        synchronized (timed) {
+            assertEquals(Arrays.asList(List.of(1, 2, 3, 4, 5), List.of(6, 7)), timed);
+        }
+
+        // Пачка, ушедшая по размеру, перезапускает таймер: следующая ждет полный timespan
+        CountDownLatch resetLatch = new CountDownLatch(1);
+        List<Long> emittedAt = new ArrayList<>();
+        Observable.create((Observer<Integer> observer) -> {
+                    LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(100));
+                    observer.onNext(1);
+                    observer.onNext(2);
+                    observer.onNext(3);
+                    LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(400));
+                    observer.onComplete();
+                })
+                .subscribeOn(Schedulers.IO)
+                .bufferTimeout(2, 150, TimeUnit.MILLISECONDS)
+                .subscribe(new Observer<>() {
+                    @Override
+                    public void onNext(List<Integer> item) {
+                        synchronized (emittedAt) {
+                            emittedAt.add(System.nanoTime());
+                        }
+                    }
+
+                    @Override
+                    public void onError(Throwable t) {
+                        fail("Не должно быть ошибок");
+                    }
+
+                    @Override
+                    public void onComplete() {
+                        resetLatch.countDown();
+                    }
+                });
+        assertTrue(resetLatch.await(2, TimeUnit.SECONDS));
+        synchronized (emittedAt) {
+            assertEquals(2, emittedAt.size());
+            assertTrue(emittedAt.get(1) - emittedAt.get(0) >= TimeUnit.MILLISECONDS.toNanos(140));
+        }
+    }
+
+    @Test
+    public void testTimedOperators() throws InterruptedException {
+        // Две пачки с паузой 200 мс между ними
+        Observable<Integer> bursts = Observable.create((Observer<Integer> observer) -> {
+            observer.onNext(1);
+            observer.onNext(2);
+            observer.onNext(3);
+            LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(200));
+            observer.onNext(4);
+            observer.onNext(5);
+            LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(200));
+            observer.onComplete();
+        }).subscribeOn(Schedulers.IO);
+
+        assertEquals(Arrays.asList(3, 5), collect(bursts.debounce(50, TimeUnit.MILLISECONDS)));
+        assertEquals(Arrays.asList(1, 4), collect(bursts.throttleFirst(100, TimeUnit.MILLISECONDS)));
+        assertEquals(Arrays.asList(3, 5), collect(bursts.sample(50, TimeUnit.MILLISECONDS)));
+
+        CountDownLatch timedOut = new CountDownLatch(1);
+        List<Integer> beforeTimeout = new ArrayList<>();
+        bursts.timeout(100, TimeUnit.MILLISECONDS).subscribe(new Observer<>() {
+            @Override
+            public void onNext(Integer item) {
+                beforeTimeout.add(item);
+            }
+
+            @Override
+            public void onError(Throwable t) {
+                assertTrue(t instanceof TimeoutException);
+                timedOut.countDown();
+            }
+
+            @Override
+            public void onComplete() {
+                fail("Не должно быть завершения");
+            }
+        });
+        assertTrue(timedOut.await(1, TimeUnit.SECONDS));
+        assertEquals(Arrays.asList(1, 2, 3), beforeTimeout);
+
+        CountDownLatch ticks = new CountDownLatch(5);
+        List<Long> counts = new ArrayList<>();
+        Disposable interval = Observable.interval(10, TimeUnit.MILLISECONDS).subscribe(new Observer<>() {
+            @Override
+            public void onNext(Long item) {
+                if (ticks.getCount() > 0) {
+                    counts.add(item);
+                    ticks.countDown();
+                }
+            }
+
+            @Override
+            public void onError(Throwable t) {
+                fail("Не должно быть ошибок");
+            }
+
+            @Override
+            public void onComplete() {
+                fail("Не должно быть завершения");
+            }
+        });
+        assertTrue(ticks.await(1, TimeUnit.SECONDS));
+        interval.dispose();
+        assertEquals(Arrays.asList(0L, 1L, 2L, 3L, 4L), counts);
+
+        // Длительность должна быть положительной, как у interval
+        Observable<Integer> source = Observable.create(observer -> observer.onComplete());
+        assertThrows(IllegalArgumentException.class, () -> source.debounce(0, TimeUnit.MILLISECONDS));
+        assertThrows(IllegalArgumentException.class, () -> source.timeout(-1, TimeUnit.MILLISECONDS));
+        assertThrows(IllegalArgumentException.class, () -> source.throttleFirst(0, TimeUnit.MILLISECONDS));
+        assertThrows(IllegalArgumentException.class, () -> source.sample(0, TimeUnit.MILLISECONDS));
+    }
+
+    private static <T> List<T> collect(Observable<T> observable) throws InterruptedException {
+        CountDownLatch latch = new CountDownLatch(1);
+        List<T> results = new ArrayList<>();
+        observable.subscribe(new Observer<>() {
+            @Override
+            public void onNext(T item) {
+                synchronized (results) {
+                    results.add(item);
+                }
+            }
+
+            @Override
+            public void onError(Throwable t) {
+                fail("Не должно быть ошибок");
+            }
+
+            @Override
+            public void onComplete() {
+                latch.countDown();
+            }
+        });
+        assertTrue(latch.await(2, TimeUnit.SECONDS));
+        synchronized (results) {
+            return new ArrayList<>(results);
+        }
+    }
+
+    @Test
+    public void testWorkerErrorReporting() throws InterruptedException {
+        // Исключение из onNext после observeOn не должно подвешивать поток без сигнала
+        CountDownLatch failed = new CountDownLatch(1);
+        AtomicReference<Throwable> error = new AtomicReference<>();
+        Observable.create((Observer<Integer> observer) -> {
+                    observer.onNext(1);
+                    observer.onNext(2);
+                })
+                .observeOn(Schedulers.COMPUTATION)
+                .subscribe(new Observer<>() {
+                    @Override
+                    public void onNext(Integer item) {
+                        throw new IllegalStateException("Ошибка в onNext " + item);
+                    }
+
+                    @Override
+                    public void onError(Throwable t) {
+                        error.set(t);
+                        failed.countDown();
+                    }
+
+                    @Override
+                    public void onComplete() {
+                    }
+                });
+        assertTrue(failed.await(1, TimeUnit.SECONDS));
+        assertEquals("Ошибка в onNext 1", error.get().getMessage());
+
+        // Исключение задачи worker доходит до обработчика непойманных исключений потока
+        Scheduler scheduler = new ComputationScheduler(1);
+        Thread.UncaughtExceptionHandler previous = Thread.getDefaultUncaughtExceptionHandler();
+        CountDownLatch reported = new CountDownLatch(1);
+        Thread.setDefaultUncaughtExceptionHandler((thread, e) -> reported.countDown());
+        try {
+            Worker worker = scheduler.createWorker();
+            worker.execute(() -> {
+                throw new IllegalStateException("Ошибка задачи");
+            });
+            assertTrue(reported.await(1, TimeUnit.SECONDS));
+
+            // Поток планировщика после этого продолжает работать
+            CountDownLatch next = new CountDownLatch(1);
+            worker.execute(next::countDown);
+            assertTrue(next.await(1, TimeUnit.SECONDS));
+        } finally {
+            Thread.setDefaultUncaughtExceptionHandler(previous);
+            scheduler.shutdown();
+        }
+    }
+
+    @Test
+    public void testCustomWorkerDefaults() throws InterruptedException {
+        // Сторонний worker реализует только execute и dispose, отложенные задачи дает интерфейс
+        Worker worker = new Worker() {
+            @Override
+            public void execute(Runnable task) {
+                task.run();
+            }
+
+            @Override
+            public void dispose() {
+            }
+        };
+
+        CountDownLatch delayed = new CountDownLatch(1);
+        worker.schedule(delayed::countDown, 10, TimeUnit.MILLISECONDS);
+        assertTrue(delayed.await(1, TimeUnit.SECONDS));
+
+        AtomicInteger cancelledRuns = new AtomicInteger();
+        Disposable cancelled = worker.schedule(cancelledRuns::incrementAndGet, 50, TimeUnit.MILLISECONDS);
+        cancelled.dispose();
+
+        CountDownLatch ticks = new CountDownLatch(3);
+        Disposable periodic = worker.schedulePeriodically(ticks::countDown, 0, 10, TimeUnit.MILLISECONDS);
+        assertTrue(ticks.await(1, TimeUnit.SECONDS));
+        periodic.dispose();
+        assertTrue(periodic.isDisposed());
+        Thread.sleep(100);
+        assertEquals(0, cancelledRuns.get());
+    }
+
+    @Test
+    public void testFlowableWorkerDisposal() throws InterruptedException {
+        AtomicInteger disposedWorkers = new AtomicInteger();
+        Scheduler tracking = new Scheduler() {
+            @Override
+            public void execute(Runnable task) {
+                Schedulers.COMPUTATION.execute(task);
+            }
+
+            @Override
+            public Worker createWorker() {
+                Worker delegate = Schedulers.COMPUTATION.createWorker();
+                return new Worker() {
+                    @Override
+                    public void execute(Runnable task) {
+                        delegate.execute(task);
+                    }
+
+                    @Override
+                    public void dispose() {
+                        disposedWorkers.incrementAndGet();
+                        delegate.dispose();
+                    }
+                };
+            }
+        };
+
+        // Отмена посреди потока отдает worker и у observeOn, и у subscribeOn
+        CountDownLatch cancelled = new CountDownLatch(1);
+        Flowable.range(0, 1_000_000)
+                .subscribeOn(tracking)
+                .observeOn(tracking, 16)
+                .subscribe(new Flow.Subscriber<Integer>() {
+                    private Flow.Subscription subscription;
+                    private int received;
+
+                    @Override
+                    public void onSubscribe(Flow.Subscription s) {
+                        subscription = s;
+                        s.request(Long.MAX_VALUE);
+                    }
+
+                    @Override
+                    public void onNext(Integer item) {
+                        if (++received == 10) {
+                            subscription.cancel();
+                            cancelled.countDown();
+                        }
+                    }
+
+                    @Override
+                    public void onError(Throwable t) {
+                    }
+
+                    @Override
+                    public void onComplete() {
+                    }
+                });
+
+        assertTrue(cancelled.await(1, TimeUnit.SECONDS));
+        long deadline = System.currentTimeMillis() + 1000;
+        while (disposedWorkers.get() < 2 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals(2, disposedWorkers.get());
+    }
+}
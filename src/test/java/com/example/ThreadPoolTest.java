@@ -0,0 +1,720 @@
+package com.example;
+
+import org.example.threadpool.CustomThreadPool;
+import org.example.threadpool.HistogramSnapshot;
+import org.example.threadpool.LoadGenerator;
+import org.example.threadpool.LoadProfile;
+import org.example.threadpool.LoadReport;
+import org.example.threadpool.PoolMetrics;
+import org.example.threadpool.QueueType;
+import org.example.threadpool.RejectionPolicy;
+import org.example.threadpool.StripedHistogram;
+import org.example.threadpool.TaskPriority;
+import org.example.threadpool.WaitStrategy;
+import org.example.threadpool.TaskPlacementStrategy;
+import org.junit.Test;
+
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Handler;
+import java.util.logging.Level;
+import java.util.logging.LogRecord;
+import java.util.logging.Logger;
+
+import static org.junit.Assert.*;
+
+public class ThreadPoolTest {
+
+    @Test
+    public void testWorkStealing() throws InterruptedException {
+        CustomThreadPool pool = CustomThreadPool.builder()
+                .corePoolSize(2)
+                .maxPoolSize(2)
+                .queueSize(100)
+                .workStealing(true)
+                .build();
+
+        CountDownLatch blocker = new CountDownLatch(1);
+        CountDownLatch done = new CountDownLatch(20);
+
+        // Первая задача надолго занимает свой воркер, задачи за ней должны уйти к соседу
+        pool.execute(() -> {
+            try {
+                blocker.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        for (int i = 0; i < 20; i++) {
+            pool.execute(done::countDown);
+        }
+
+        assertTrue(done.await(1, TimeUnit.SECONDS));
+        assertTrue(pool.getStolenTaskCount() > 0);
+
+        blocker.countDown();
+        pool.shutdown();
+    }
+
+    @Test
+    public void testMpscRingQueue() throws InterruptedException {
+        CustomThreadPool pool = CustomThreadPool.builder()
+                .corePoolSize(2)
+                .maxPoolSize(2)
+                .queueSize(1024)
+                .queueType(QueueType.MPSC_RING)
+                .build();
+
+        int producers = 4;
+        int tasksPerProducer = 200;
+        CountDownLatch done = new CountDownLatch(producers * tasksPerProducer);
+
+        for (int p = 0; p < producers; p++) {
+            new Thread(() -> {
+                for (int i = 0; i < tasksPerProducer; i++) {
+                    pool.execute(done::countDown);
+                }
+            }).start();
+        }
+
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+        pool.shutdown();
+    }
+
+    @Test
+    public void testPlacementStrategies() {
+        int[] depths = {5, 0, 3};
+
+        TaskPlacementStrategy leastLoaded = TaskPlacementStrategy.leastLoaded();
+        TaskPlacementStrategy powerOfTwo = TaskPlacementStrategy.powerOfTwoChoices();
+        TaskPlacementStrategy roundRobin = TaskPlacementStrategy.roundRobin();
+
+        for (int i = 0; i < 100; i++) {
+            assertEquals(1, leastLoaded.selectQueue(3, index -> depths[index]));
+            // Из любых двух разных очередей самая загруженная не выигрывает
+            assertNotEquals(0, powerOfTwo.selectQueue(3, index -> depths[index]));
+            assertEquals(i % 3, roundRobin.selectQueue(3, index -> depths[index]));
+        }
+    }
+
+    @Test
+    public void testMetrics() throws Exception {
+        CustomThreadPool pool = CustomThreadPool.builder()
+                .corePoolSize(2)
+                .maxPoolSize(2)
+                .jmxName("metrics-test")
+                .build();
+
+        CountDownLatch done = new CountDownLatch(10);
+        for (int i = 0; i < 10; i++) {
+            pool.execute(done::countDown);
+        }
+        assertTrue(done.await(1, TimeUnit.SECONDS));
+
+        // Счетчик обновляется после выполнения задачи, дадим воркерам дописать метрики
+        PoolMetrics metrics = pool.getMetrics();
+        long deadline = System.currentTimeMillis() + 1000;
+        while (metrics.getCompletedTaskCount() < 10 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+
+        assertEquals(10, metrics.getCompletedTaskCount());
+        assertEquals(2, metrics.getCreatedWorkerCount());
+        assertEquals(10, metrics.getQueueWaitSnapshot().getTotalCount());
+        assertEquals(2, pool.getQueueDepths().length);
+
+        ObjectName name = new ObjectName("org.example.threadpool:type=CustomThreadPool,name=\"metrics-test\"");
+        assertEquals(10L, ManagementFactory.getPlatformMBeanServer().getAttribute(name, "CompletedTaskCount"));
+
+        pool.shutdown();
+        assertFalse(ManagementFactory.getPlatformMBeanServer().isRegistered(name));
+    }
+
+    @Test
+    public void testHistogramPercentiles() {
+        StripedHistogram histogram = new StripedHistogram(7, 40);
+        for (int i = 1; i <= 10_000; i++) {
+            histogram.record(i * 1_000L);
+        }
+
+        HistogramSnapshot snapshot = histogram.snapshot();
+        assertEquals(10_000, snapshot.getTotalCount());
+        assertEquals(5_000_000, snapshot.getValueAtPercentile(50), 5_000_000 * 0.02);
+        assertEquals(9_900_000, snapshot.getValueAtPercentile(99), 9_900_000 * 0.02);
+        assertEquals(10_000_000, snapshot.getMaxValue(), 10_000_000 * 0.02);
+    }
+
+    @Test
+    public void testVirtualThreads() throws InterruptedException {
+        CustomThreadPool pool = CustomThreadPool.builder()
+                .virtualThreads(true)
+                .maxConcurrency(5)
+                .build();
+
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger peak = new AtomicInteger();
+        CountDownLatch done = new CountDownLatch(50);
+
+        for (int i = 0; i < 50; i++) {
+            pool.execute(() -> {
+                peak.accumulateAndGet(running.incrementAndGet(), Math::max);
+                try {
+                    Thread.sleep(20);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } finally {
+                    running.decrementAndGet();
+                    done.countDown();
+                }
+            });
+        }
+
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+        assertTrue(peak.get() <= 5);
+        pool.shutdown();
+    }
+
+    @Test
+    public void testBatchSubmission() throws Exception {
+        CustomThreadPool pool = CustomThreadPool.builder()
+                .corePoolSize(3)
+                .maxPoolSize(3)
+                .queueType(QueueType.MPSC_RING)
+                .build();
+
+        CountDownLatch done = new CountDownLatch(100);
+        List<Runnable> batch = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            batch.add(done::countDown);
+        }
+        pool.executeAll(batch);
+        assertTrue(done.await(1, TimeUnit.SECONDS));
+
+        List<Callable<Integer>> calls = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            int value = i;
+            calls.add(() -> value * value);
+        }
+        List<Future<Integer>> results = pool.invokeAll(calls);
+        for (int i = 0; i < 10; i++) {
+            assertEquals(i * i, (int) results.get(i).get());
+        }
+
+        int any = pool.invokeAny(List.<Callable<Integer>>of(
+                () -> {
+                    throw new IllegalStateException("fail");
+                },
+                () -> 7));
+        assertEquals(7, any);
+
+        pool.shutdown();
+    }
+
+    @Test
+    public void testAdaptiveSizing() throws InterruptedException {
+        CustomThreadPool pool = CustomThreadPool.builder()
+                .corePoolSize(1)
+                .maxPoolSize(4)
+                .adaptiveSizing(1, TimeUnit.MILLISECONDS)
+                .build();
+
+        CountDownLatch done = new CountDownLatch(60);
+        for (int i = 0; i < 60; i++) {
+            pool.execute(() -> {
+                try {
+                    Thread.sleep(50);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } finally {
+                    done.countDown();
+                }
+            });
+        }
+
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+        int grown = pool.getPoolSize();
+        assertTrue(grown > 1);
+
+        // После простоя контроллер начинает возвращать пул к corePoolSize
+        long deadline = System.currentTimeMillis() + 3000;
+        while (pool.getPoolSize() >= grown && System.currentTimeMillis() < deadline) {
+            Thread.sleep(50);
+        }
+        assertTrue(pool.getPoolSize() < grown);
+        assertTrue(pool.getMetrics().getRetiredWorkerCount() > 0);
+        pool.shutdown();
+    }
+
+    @Test
+    public void testRejectionPolicies() throws InterruptedException {
+        CountDownLatch blocker = new CountDownLatch(1);
+        Runnable blocking = () -> {
+            try {
+                blocker.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        };
+
+        CustomThreadPool failFast = CustomThreadPool.builder()
+                .corePoolSize(1)
+                .maxPoolSize(1)
+                .queueSize(1)
+                .rejectionPolicy(RejectionPolicy.failFast())
+                .build();
+        CustomThreadPool spilling = CustomThreadPool.builder()
+                .corePoolSize(1)
+                .maxPoolSize(1)
+                .queueSize(1)
+                .rejectionPolicy(RejectionPolicy.spillToOverflow().orElse(RejectionPolicy.callerRuns()))
+                .overflowQueueSize(2)
+                .build();
+
+        // Воркер занят, одно место в очереди - третья задача уже не влезает
+        for (CustomThreadPool pool : List.of(failFast, spilling)) {
+            pool.execute(blocking);
+            Thread.sleep(50);
+            pool.execute(() -> {
+            });
+        }
+
+        long started = System.nanoTime();
+        try {
+            failFast.execute(() -> {
+            });
+            fail("Task should be rejected");
+        } catch (RejectedExecutionException expected) {
+            assertTrue(System.nanoTime() - started < TimeUnit.MILLISECONDS.toNanos(50));
+        }
+        assertEquals(1, failFast.getMetrics().getRejectedTaskCount());
+
+        CountDownLatch done = new CountDownLatch(2);
+        spilling.execute(done::countDown);
+        spilling.execute(done::countDown);
+        assertEquals(2, spilling.getOverflowQueueDepth());
+
+        // Переполнение заполнено, задача выполняется в вызывающем потоке
+        Thread caller = Thread.currentThread();
+        AtomicInteger ranByCaller = new AtomicInteger();
+        spilling.execute(() -> {
+            if (Thread.currentThread() == caller) {
+                ranByCaller.incrementAndGet();
+            }
+        });
+        assertEquals(1, ranByCaller.get());
+
+        blocker.countDown();
+        assertTrue(done.await(1, TimeUnit.SECONDS));
+        failFast.shutdown();
+        spilling.shutdown();
+    }
+
+    @Test
+    public void testSubmitAsync() {
+        CustomThreadPool pool = CustomThreadPool.builder()
+                .corePoolSize(2)
+                .maxPoolSize(2)
+                .build();
+
+        // Продолжения без явного executor тоже должны выполняться в пуле
+        CompletableFuture<String> chain = pool.submitAsync(() -> 20)
+                .thenApplyAsync(value -> value + 1)
+                .thenComposeAsync(value -> pool.submitAsync(() -> value * 2))
+                .thenApplyAsync(value -> Thread.currentThread().getName() + ":" + value);
+
+        String result = chain.join();
+        assertTrue(result.startsWith("CustomPool-worker-"));
+        assertTrue(result.endsWith(":42"));
+
+        CompletableFuture<Integer> failed = pool.submitAsync(() -> {
+            throw new IllegalStateException("fail");
+        });
+        assertEquals(-1, (int) failed.exceptionally(e -> -1).join());
+
+        pool.shutdown();
+    }
+
+    @Test
+    public void testDeadlineScheduling() throws InterruptedException {
+        CustomThreadPool pool = CustomThreadPool.builder()
+                .corePoolSize(1)
+                .maxPoolSize(1)
+                .queueType(QueueType.DEADLINE)
+                .priorityAging(10, TimeUnit.MILLISECONDS)
+                .build();
+
+        CountDownLatch blocker = new CountDownLatch(1);
+        pool.execute(() -> {
+            try {
+                blocker.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        Thread.sleep(20);
+
+        List<String> order = Collections.synchronizedList(new ArrayList<>());
+        CountDownLatch done = new CountDownLatch(4);
+        pool.execute(() -> order.add("old-low"), TaskPriority.LOW);
+        // Старая задача LOW успевает "состариться" дальше двух шагов и должна выйти первой
+        Thread.sleep(50);
+        pool.execute(() -> order.add("low"), TaskPriority.LOW);
+        pool.execute(() -> order.add("normal"));
+        pool.execute(() -> order.add("high"), TaskPriority.HIGH);
+        pool.execute(done::countDown);
+        for (int i = 0; i < 3; i++) {
+            pool.execute(done::countDown, TaskPriority.LOW);
+        }
+
+        blocker.countDown();
+        assertTrue(done.await(1, TimeUnit.SECONDS));
+        assertEquals(List.of("old-low", "high", "normal", "low"), order);
+        pool.shutdown();
+    }
+
+    @Test
+    public void testDeadlineDiscardOldest() throws InterruptedException {
+        CustomThreadPool pool = CustomThreadPool.builder()
+                .corePoolSize(1)
+                .maxPoolSize(1)
+                .queueSize(2)
+                .queueType(QueueType.DEADLINE)
+                .rejectionPolicy(RejectionPolicy.discardOldest())
+                .build();
+
+        CountDownLatch blocker = new CountDownLatch(1);
+        pool.execute(() -> {
+            try {
+                blocker.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        Thread.sleep(20);
+
+        // При перегрузке выбрасывается наименее срочная задача, а не голова очереди
+        List<String> order = Collections.synchronizedList(new ArrayList<>());
+        pool.execute(() -> order.add("low"), TaskPriority.LOW);
+        pool.execute(() -> order.add("high"), TaskPriority.HIGH);
+        pool.execute(() -> order.add("normal"));
+
+        blocker.countDown();
+        long deadline = System.currentTimeMillis() + 1000;
+        while (order.size() < 2 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals(List.of("high", "normal"), order);
+        assertEquals(1, pool.getMetrics().getRejectedTaskCount());
+        pool.shutdown();
+    }
+
+    @Test
+    public void testScheduling() throws Exception {
+        CustomThreadPool pool = CustomThreadPool.builder()
+                .corePoolSize(2)
+                .maxPoolSize(2)
+                .timerTick(1, TimeUnit.MILLISECONDS)
+                .build();
+
+        long started = System.nanoTime();
+        ScheduledFuture<Long> delayed = pool.schedule(() -> System.nanoTime() - started, 50, TimeUnit.MILLISECONDS);
+        assertTrue(delayed.get(1, TimeUnit.SECONDS) >= TimeUnit.MILLISECONDS.toNanos(50));
+
+        AtomicInteger ticks = new AtomicInteger();
+        ScheduledFuture<?> periodic = pool.scheduleAtFixedRate(ticks::incrementAndGet, 0, 10, TimeUnit.MILLISECONDS);
+        ScheduledFuture<?> cancelled = pool.schedule(ticks::incrementAndGet, 1, TimeUnit.HOURS);
+        Thread.sleep(200);
+        periodic.cancel(false);
+        assertTrue(cancelled.cancel(false));
+        int fired = ticks.get();
+        assertTrue(fired >= 10);
+
+        Thread.sleep(50);
+        assertTrue(ticks.get() <= fired + 1);
+        pool.shutdown();
+    }
+
+    @Test
+    public void testSchedulingWhenQueuesFull() throws Exception {
+        CustomThreadPool pool = CustomThreadPool.builder()
+                .corePoolSize(1)
+                .maxPoolSize(1)
+                .queueSize(1)
+                .timerTick(1, TimeUnit.MILLISECONDS)
+                .build();
+
+        // Воркер занят, его очередь полна: сработавший таймер некуда положить
+        CountDownLatch release = new CountDownLatch(1);
+        pool.execute(() -> {
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        Thread.sleep(50);
+        pool.execute(() -> { });
+
+        AtomicInteger ticks = new AtomicInteger();
+        ScheduledFuture<?> periodic = pool.scheduleAtFixedRate(ticks::incrementAndGet, 0, 10, TimeUnit.MILLISECONDS);
+        ScheduledFuture<String> delayed = pool.schedule(() -> "done", 10, TimeUnit.MILLISECONDS);
+        Thread.sleep(100);
+        assertFalse(periodic.isCancelled());
+        assertFalse(delayed.isCancelled());
+
+        // Как только место появилось, таймеры срабатывают
+        release.countDown();
+        assertEquals("done", delayed.get(1, TimeUnit.SECONDS));
+        long deadline = System.currentTimeMillis() + 1000;
+        while (ticks.get() < 3 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertTrue(ticks.get() >= 3);
+        periodic.cancel(false);
+        pool.shutdown();
+    }
+
+    @Test
+    public void testWaitStrategies() throws InterruptedException {
+        for (WaitStrategy strategy : WaitStrategy.values()) {
+            CustomThreadPool pool = CustomThreadPool.builder()
+                    .corePoolSize(2)
+                    .maxPoolSize(2)
+                    .workStealing(true)
+                    .waitStrategy(strategy)
+                    .build();
+
+            // Между задачами воркеры успевают дойти до самой глубокой фазы ожидания
+            for (int round = 0; round < 3; round++) {
+                CountDownLatch done = new CountDownLatch(20);
+                for (int i = 0; i < 20; i++) {
+                    pool.execute(done::countDown);
+                }
+                assertTrue(strategy.name(), done.await(1, TimeUnit.SECONDS));
+                Thread.sleep(20);
+            }
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    public void testKeyedExecution() throws InterruptedException {
+        CustomThreadPool pool = CustomThreadPool.builder()
+                .corePoolSize(4)
+                .maxPoolSize(4)
+                .build();
+
+        int keys = 8;
+        int tasksPerKey = 500;
+        List<List<Integer>> seen = new ArrayList<>();
+        AtomicInteger[] running = new AtomicInteger[keys];
+        AtomicInteger overlaps = new AtomicInteger();
+        for (int k = 0; k < keys; k++) {
+            seen.add(new ArrayList<>());
+            running[k] = new AtomicInteger();
+        }
+
+        CountDownLatch done = new CountDownLatch(keys * tasksPerKey);
+        for (int i = 0; i < tasksPerKey; i++) {
+            for (int k = 0; k < keys; k++) {
+                int key = k;
+                int value = i;
+                pool.execute("account-" + key, () -> {
+                    if (running[key].incrementAndGet() > 1) {
+                        overlaps.incrementAndGet();
+                    }
+                    seen.get(key).add(value);
+                    running[key].decrementAndGet();
+                    done.countDown();
+                });
+            }
+        }
+
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+        assertEquals(0, overlaps.get());
+        for (int k = 0; k < keys; k++) {
+            List<Integer> values = seen.get(k);
+            for (int i = 0; i < tasksPerKey; i++) {
+                assertEquals(i, (int) values.get(i));
+            }
+        }
+
+        // Опустевшие полосы убираются
+        long deadline = System.currentTimeMillis() + 1000;
+        while (pool.getActiveKeyCount() > 0 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals(0, pool.getActiveKeyCount());
+        pool.shutdown();
+    }
+
+    @Test
+    public void testKeyedExecutionWithDiscardOldest() throws InterruptedException {
+        CustomThreadPool pool = CustomThreadPool.builder()
+                .corePoolSize(1)
+                .maxPoolSize(1)
+                .queueSize(1)
+                .rejectionPolicy(RejectionPolicy.discardOldest())
+                .build();
+
+        CountDownLatch release = new CountDownLatch(1);
+        pool.execute(() -> {
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        Thread.sleep(50);
+
+        // Разборщик полосы занимает единственное место в очереди
+        CountDownLatch done = new CountDownLatch(6);
+        for (int i = 0; i < 6; i++) {
+            pool.execute("key", done::countDown);
+        }
+        // discardOldest не должен выбросить разборщик вместе со всеми задачами ключа
+        for (int i = 0; i < 3; i++) {
+            try {
+                pool.execute(() -> {
+                });
+            } catch (RejectedExecutionException ignored) {
+            }
+        }
+
+        release.countDown();
+        assertTrue(done.await(1, TimeUnit.SECONDS));
+        long deadline = System.currentTimeMillis() + 1000;
+        while (pool.getActiveKeyCount() > 0 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals(0, pool.getActiveKeyCount());
+        pool.shutdown();
+    }
+
+    @Test
+    public void testEventBufferOverflow() throws InterruptedException {
+        CustomThreadPool pool = CustomThreadPool.builder()
+                .corePoolSize(1)
+                .maxPoolSize(1)
+                .queueSize(1000)
+                .eventBufferSize(2)
+                .build();
+
+        CountDownLatch done = new CountDownLatch(1000);
+        Runnable task = done::countDown;
+        AtomicInteger logged = new AtomicInteger();
+        Handler handler = countingHandler(task, logged);
+        Logger.getLogger(CustomThreadPool.class.getName()).addHandler(handler);
+        try {
+            for (int i = 0; i < 1000; i++) {
+                pool.execute(task);
+            }
+            assertTrue(done.await(5, TimeUnit.SECONDS));
+            pool.shutdown();
+            awaitQuiet(logged);
+
+            // Буфер на 2 события, а фоновый поток разбирает его раз в 10 мс: большая часть отброшена,
+            // и каждое из 2000 событий (принята + начата) либо выписано, либо посчитано как потерянное
+            assertTrue(pool.getDroppedEventCount() > 0);
+            assertEquals(2000, logged.get() + pool.getDroppedEventCount());
+        } finally {
+            Logger.getLogger(CustomThreadPool.class.getName()).removeHandler(handler);
+        }
+    }
+
+    @Test
+    public void testEventSampling() throws InterruptedException {
+        CustomThreadPool pool = CustomThreadPool.builder()
+                .corePoolSize(1)
+                .maxPoolSize(1)
+                .queueSize(2000)
+                .eventSampling(Level.INFO, 10)
+                .build();
+
+        CountDownLatch done = new CountDownLatch(2000);
+        Runnable task = done::countDown;
+        AtomicInteger logged = new AtomicInteger();
+        Handler handler = countingHandler(task, logged);
+        Logger.getLogger(CustomThreadPool.class.getName()).addHandler(handler);
+        try {
+            for (int i = 0; i < 2000; i++) {
+                pool.execute(task);
+            }
+            assertTrue(done.await(5, TimeUnit.SECONDS));
+            pool.shutdown();
+            awaitQuiet(logged);
+
+            // 4000 INFO-событий, пишется примерно каждое десятое: 400 +- 19
+            assertEquals(0, pool.getDroppedEventCount());
+            assertTrue("logged " + logged.get(), logged.get() > 250 && logged.get() < 550);
+        } finally {
+            Logger.getLogger(CustomThreadPool.class.getName()).removeHandler(handler);
+        }
+    }
+
+    private static Handler countingHandler(Runnable task, AtomicInteger counter) {
+        String taskId = "task@" + Integer.toHexString(System.identityHashCode(task));
+        return new Handler() {
+            @Override
+            public void publish(LogRecord record) {
+                if (record.getMessage().contains(taskId)) {
+                    counter.incrementAndGet();
+                }
+            }
+
+            @Override
+            public void flush() {
+            }
+
+            @Override
+            public void close() {
+            }
+        };
+    }
+
+    private static void awaitQuiet(AtomicInteger counter) throws InterruptedException {
+        // Журнал выписывается фоновым потоком раз в 10 мс, ждем, пока он допишет
+        int seen;
+        do {
+            seen = counter.get();
+            Thread.sleep(50);
+        } while (counter.get() != seen);
+    }
+
+    @Test
+    public void testLoadGenerator() {
+        CustomThreadPool pool = CustomThreadPool.builder()
+                .corePoolSize(1)
+                .maxPoolSize(1)
+                .build();
+
+        // Одна задача на 10 мс при частоте в 1 мс: пул перегружен, очередь растет
+        LoadReport report = LoadGenerator.builder()
+                .rate(1_000)
+                .profile(LoadProfile.BLOCKING)
+                .serviceTime(10, TimeUnit.MILLISECONDS)
+                .warmup(0, TimeUnit.MILLISECONDS)
+                .duration(100, TimeUnit.MILLISECONDS)
+                .build()
+                .run("overloaded", pool);
+
+        HistogramSnapshot latency = report.getCorrectedLatency();
+        assertEquals(100, report.getCompletedCount() + report.getRejectedCount() + report.getIncompleteCount());
+        assertTrue(latency.getValueAtPercentile(50) <= latency.getValueAtPercentile(99.99));
+        // 100 задач по 10 мс подряд: последние ждут около секунды
+        assertTrue(latency.getMaxValue() > TimeUnit.MILLISECONDS.toNanos(500));
+        assertTrue(report.formatRow().startsWith("overloaded"));
+        pool.shutdown();
+    }
+}